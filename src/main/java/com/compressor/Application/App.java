@@ -1,29 +1,306 @@
 package com.compressor.Application; // Define el paquete donde está este archivo
 
 import javax.swing.SwingUtilities; // Importa SwingUtilities para manejar la interfaz gráfica
+import java.io.File; // Importa File para los archivos de la copia de seguridad
+import java.io.IOException; // Importa IOException para los errores del modo servicio
+import java.nio.file.Path; // Importa Path para las carpetas del modo servicio
+import java.util.ArrayList; // Importa ArrayList para la lista de carpetas
+import java.util.List; // Importa la interfaz List para la lista de carpetas
 import com.compressor.controller.FileCompressionController; // Importa el controlador
+import com.compressor.model.ArchiveExtractor; // Importa el extractor de archivos ZIP
+import com.compressor.model.ChunkStore; // Importa el repositorio de copias con deduplicación
+import com.compressor.model.CompressionClient; // Importa el cliente del servicio de compresión
+import com.compressor.model.CompressionService; // Importa el servicio local de compresión
 import com.compressor.model.FileCompressor; // Importa la clase que comprime archivos
 import com.compressor.model.FileSelectionModel; // Importa la clase que maneja la selección de archivos
+import com.compressor.model.FolderWatcher; // Importa el vigilante de carpetas
+import com.compressor.model.PerformanceLog; // Importa el registro de tiempos de arranque
 import com.compressor.model.ProgressData; // Importa la clase que guarda el progreso de la compresión
 import com.compressor.view.MainFrame; // Importa la ventana principal del programa
 
 public class App { // Clase principal del programa
     public static void main(String[] args) { // Método principal donde comienza la ejecución
+        if (args.length > 0 && args[0].equals("--watch")) { // Modo servicio sin interfaz gráfica
+            runWatcher(args);
+            return;
+        }
+        if (args.length > 0 && (args[0].equals("--backup") || args[0].equals("--restore"))) { // Copias con deduplicación
+            runChunkStore(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--extract")) { // Extrae un ZIP, también los que usan diccionario
+            runExtract(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) { // Servicio local compartido por varios procesos
+            runService(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--submit")) { // Envía un trabajo al servicio local
+            runClient(args);
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> { // Ejecuta el código en un hilo separado para manejar la interfaz gráfica
             
-            // Crea los modelos (componentes del programa)
-            FileSelectionModel selectionModel = new FileSelectionModel(); // Modelo para seleccionar archivos
-            FileCompressor compressor = new FileCompressor(); // Modelo que realiza la compresión
-            ProgressData progressData = new ProgressData(); // Modelo que guarda el progreso de la compresión
-            
-            // Crea la ventana principal
+            // Crea y muestra primero la ventana principal, para que aparezca cuanto antes
             MainFrame mainFrame = new MainFrame();
-            
-            // Crea el controlador que conecta los modelos con la interfaz gráfica
-            FileCompressionController controller = new FileCompressionController(selectionModel, compressor, mainFrame);
-            
-            // Muestra la ventana del programa
             mainFrame.setVisible(true);
+            PerformanceLog.recordSinceProcessStart("time-to-window");
+
+            // El resto se prepara en un evento posterior, cuando la ventana ya se ha pintado
+            SwingUtilities.invokeLater(() -> {
+                // Crea los modelos (componentes del programa)
+                FileSelectionModel selectionModel = new FileSelectionModel(); // Modelo para seleccionar archivos
+                FileCompressor compressor = new FileCompressor(); // Modelo que realiza la compresión
+                ProgressData progressData = new ProgressData(); // Modelo que guarda el progreso de la compresión
+
+                // Crea el controlador que conecta los modelos con la interfaz gráfica
+                FileCompressionController controller = new FileCompressionController(selectionModel, compressor, mainFrame);
+                PerformanceLog.recordSinceProcessStart("time-to-interactive");
+
+                // Prepara los selectores de archivos en segundo plano
+                selectionModel.prewarm();
+            });
         });
     }
+
+    /**
+     * Modo de vigilancia de carpetas:
+     * --watch [--window=SEGUNDOS] [--max-mb=MB] CARPETA_SALIDA CARPETA_ENTRADA...
+     */
+    private static void runWatcher(String[] args) {
+        String usage = "Usage: --watch [--window=SECONDS] [--max-mb=MB] OUTPUT_DIR INPUT_DIR...";
+        long windowMillis = 10_000; // Ventana por defecto de 10 segundos
+        long maxBytes = 256L * 1024 * 1024; // Lote máximo por defecto de 256 MB
+        List<Path> dirs = new ArrayList<>(); // Carpeta de salida seguida de las de entrada
+        FolderWatcher watcher = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].startsWith("--window=")) {
+                    windowMillis = (long) (Double.parseDouble(args[i].substring(9)) * 1000);
+                } else if (args[i].startsWith("--max-mb=")) {
+                    maxBytes = Long.parseLong(args[i].substring(9)) * 1024 * 1024;
+                } else {
+                    dirs.add(Path.of(args[i]));
+                }
+            }
+            if (dirs.size() >= 2) {
+                watcher = new FolderWatcher(dirs.get(0), windowMillis, maxBytes); // Rechaza ventanas o tamaños no positivos
+            }
+        } catch (IllegalArgumentException e) {
+            // Número mal escrito, ventana o tamaño no positivos: se muestra el uso
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+        if (watcher == null) {
+            System.err.println(usage);
+            System.exit(2);
+        }
+        runWatcher(watcher, dirs);
+    }
+
+    // Registra las carpetas de entrada y ejecuta el vigilante hasta que se detiene el proceso
+    private static void runWatcher(FolderWatcher watcher, List<Path> dirs) {
+        try {
+            watcher.setBatchListener(new FolderWatcher.BatchListener() {
+                @Override
+                public void onBatchWritten(Path archive, int fileCount, long totalBytes) {
+                    System.out.println("Wrote " + archive + " (" + fileCount + " files, " + totalBytes + " bytes)");
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                }
+            });
+            for (Path dir : dirs.subList(1, dirs.size())) {
+                watcher.watch(dir);
+            }
+            // Al detener el proceso se escribe el lote pendiente
+            Thread mainThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    watcher.close();
+                    mainThread.join();
+                } catch (IOException | InterruptedException e) {
+                    // El proceso está terminando
+                }
+            }));
+            watcher.run();
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Copias de seguridad con deduplicación:
+     * --backup REPOSITORIO ARCHIVO...
+     * --restore REPOSITORIO MANIFIESTO CARPETA_DESTINO
+     */
+    private static void runChunkStore(String[] args) {
+        boolean backup = args[0].equals("--backup");
+        if (args.length < 3 || (!backup && args.length != 4)) {
+            System.err.println("Usage: --backup REPOSITORY FILE... | --restore REPOSITORY MANIFEST TARGET_DIR");
+            System.exit(2);
+        }
+        try {
+            ChunkStore store = new ChunkStore(Path.of(args[1]));
+            if (backup) {
+                List<File> files = new ArrayList<>();
+                for (int i = 2; i < args.length; i++) {
+                    files.add(new File(args[i]));
+                }
+                ChunkStore.BackupResult result = store.backup(files, null);
+                System.out.println("Wrote " + result.getManifest() + ": " + result.getTotalBytes() + " bytes, "
+                    + result.getNewChunks() + " new chunks (" + result.getNewBytes() + " bytes), "
+                    + result.getReusedChunks() + " reused");
+            } else {
+                store.restore(Path.of(args[2]), Path.of(args[3]));
+                System.out.println("Restored " + args[2] + " into " + args[3]);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Extracción de un ZIP generado por el programa, con o sin diccionario compartido:
+     * --extract ARCHIVO_ZIP CARPETA_DESTINO
+     */
+    private static void runExtract(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: --extract ZIP_FILE TARGET_DIR");
+            System.exit(2);
+        }
+        try {
+            new ArchiveExtractor().extract(new File(args[1]), new File(args[2]));
+            System.out.println("Extracted " + args[1] + " into " + args[2]);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Servicio local de compresión, por defecto en el socket Unix CompressionService.DEFAULT_SOCKET.
+     * Con --port escucha en TCP y guarda el token en CompressionService.DEFAULT_TOKEN_FILE:
+     * --serve [--port=PUERTO | --socket=RUTA]
+     */
+    private static void runService(String[] args) {
+        try {
+            CompressionService service = openService(args);
+            System.out.println("Listening on " + service.getAddress());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    service.close();
+                } catch (IOException e) {
+                    // El proceso está terminando
+                }
+            }));
+            service.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage()); // Uso del modo o puerto no válido
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Cliente del servicio local:
+     * --submit [--port=PUERTO | --socket=RUTA] [--codec=zip|gzip] [--level=N] [--output=RUTA] ARCHIVO...
+     */
+    private static void runClient(String[] args) {
+        String usage = "Usage: --submit [--port=PORT | --socket=PATH] [--codec=zip|gzip] [--level=N] [--output=PATH] FILE...";
+        Integer port = null;
+        Path socket = CompressionService.DEFAULT_SOCKET;
+        String codec = "zip";
+        int level = -1;
+        String output = null;
+        List<File> files = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].startsWith("--port=")) {
+                    port = Integer.parseInt(args[i].substring(7));
+                } else if (args[i].startsWith("--socket=")) {
+                    socket = Path.of(args[i].substring(9));
+                } else if (args[i].startsWith("--codec=")) {
+                    codec = args[i].substring(8);
+                } else if (args[i].startsWith("--level=")) {
+                    level = Integer.parseInt(args[i].substring(8));
+                } else if (args[i].startsWith("--output=")) {
+                    output = args[i].substring(9);
+                } else {
+                    files.add(new File(args[i]));
+                }
+            }
+        } catch (IllegalArgumentException e) { // Número mal escrito
+            files.clear();
+        }
+        if (files.isEmpty()) {
+            System.err.println(usage);
+            System.exit(2);
+        }
+
+        try {
+            CompressionClient client = port != null
+                ? CompressionClient.tcp(port, CompressionService.DEFAULT_TOKEN_FILE)
+                : CompressionClient.unix(socket);
+            boolean ok = client.submit(files, codec, level, output, new FileCompressor.CompressionListener() {
+                @Override
+                public void onProgressUpdate(int fileIndex, int progress) {
+                }
+
+                @Override
+                public void onFileComplete(int fileIndex) {
+                    System.out.println("Compressed " + files.get(fileIndex));
+                }
+
+                @Override
+                public void onCompressionComplete() {
+                    System.out.println("Done");
+                }
+
+                @Override
+                public void onError(File file, Exception e) {
+                    System.err.println("Error compressing " + (file != null ? file : "") + ": " + e.getMessage());
+                }
+
+                @Override
+                public void onConcurrencyChange(int activeWorkers, String reason) {
+                    System.out.println("Workers: " + activeWorkers + " (" + reason + ")");
+                }
+            });
+            System.exit(ok ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Abre el servicio en el puerto o socket indicado, por defecto en el socket Unix privado del usuario
+    private static CompressionService openService(String[] args) throws IOException {
+        String usage = "Usage: --serve [--port=PORT | --socket=PATH]";
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--port=")) {
+                int port;
+                try {
+                    port = Integer.parseInt(args[i].substring(7));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(usage);
+                }
+                return CompressionService.openTcp(port, CompressionService.DEFAULT_TOKEN_FILE);
+            } else if (args[i].startsWith("--socket=")) {
+                return CompressionService.openUnix(Path.of(args[i].substring(9)));
+            } else {
+                throw new IllegalArgumentException(usage);
+            }
+        }
+        return CompressionService.openUnix(CompressionService.DEFAULT_SOCKET);
+    }
 }
@@ -0,0 +1,528 @@
+package com.compressor.Application; // Define el paquete donde está este archivo
+
+import com.compressor.model.FileCompressor; // Importa la clase que comprime archivos
+import com.compressor.model.FileSelectionModel; // Importa la clase que maneja la selección de archivos
+import com.compressor.model.ProgressData; // Importa la clase que guarda el progreso de la compresión
+import com.sun.management.GarbageCollectionNotificationInfo; // Importa la información de cada pausa de GC
+import java.io.*; // Importa clases para manejo de archivos
+import java.lang.management.*; // Importa los MXBean de memoria, hilos y GC
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para los archivos de texto generados
+import java.nio.file.*; // Importa Path y Files para generar los corpus
+import java.util.*; // Importa colecciones para resultados y líneas base
+import java.util.concurrent.atomic.AtomicLong; // Importa AtomicLong para contadores compartidos entre hilos
+import javax.management.NotificationEmitter; // Importa NotificationEmitter para escuchar las pausas de GC
+import javax.management.NotificationListener; // Importa NotificationListener para escuchar las pausas de GC
+import javax.management.openmbean.CompositeData; // Importa CompositeData, formato de las notificaciones de GC
+import javax.swing.SwingUtilities; // Importa SwingUtilities para medir la cola del hilo de la interfaz
+
+/**
+ * Banco de pruebas de carga y escalado, sin red y sin dependencias externas.
+ * Genera corpus sintéticos (muchos archivos diminutos, un archivo enorme, contenido mixto y un
+ * árbol profundo), ejecuta compresiones completas con 1..N hilos y mide rendimiento, pico de
+ * RSS y de heap, pausas de GC, hilos, eventos de progreso, retraso de la cola de eventos de la
+ * interfaz y error de la estimación de tiempo restante. Cada corpus se ejecuta además una vez
+ * con concurrencia adaptativa (hasta el doble del máximo de hilos) y se anotan el número final
+ * de hilos activos y las decisiones del controlador. Si se indica una línea base, termina
+ * con código 1 cuando alguna ejecución empeora más allá de la tolerancia.
+ *
+ * Uso: java -cp bin com.compressor.Application.LoadTestHarness [--corpus=tiny,huge,mixed,deep]
+ *      [--scale=1] [--threads=N] [--work-dir=DIR] [--baseline=ARCHIVO] [--update-baseline]
+ *      [--tolerance=0.25]
+ */
+public class LoadTestHarness {
+    private static final long MB = 1024 * 1024;
+
+    // Resultado de una ejecución
+    private static final class RunResult {
+        private String corpus;
+        private int threads;
+        private boolean adaptive; // Concurrencia adaptativa, threads es el techo
+        private int finalWorkers; // Hilos activos al terminar
+        private int concurrencyChanges; // Decisiones del controlador que cambiaron los hilos activos
+        private long bytes;
+        private int files;
+        private long wallMillis;
+        private double throughputMBs;
+        private long peakRssMB = -1; // -1 si el sistema no permite medirlo
+        private long peakHeapMB;
+        private long gcCount;
+        private long gcTotalMillis;
+        private long gcMaxPauseMillis;
+        private int peakThreads;
+        private long progressEvents;
+        private double progressEventsPerSec;
+        private long edtMaxLagMillis;
+        private double etaErrorPercent;
+        private long selectionMillis;
+        private boolean success;
+
+        // Nombre de la ejecución en la línea base
+        private String key() {
+            return corpus + (adaptive ? ".auto" : ".t" + threads);
+        }
+
+        // Métricas comparadas con la línea base: nombre -> {valor, true si más alto es mejor}
+        private Map<String, Object[]> metrics() {
+            Map<String, Object[]> metrics = new LinkedHashMap<>();
+            metrics.put("throughputMBs", new Object[] {throughputMBs, true});
+            metrics.put("peakHeapMB", new Object[] {(double) peakHeapMB, false});
+            if (peakRssMB >= 0) {
+                metrics.put("peakRssMB", new Object[] {(double) peakRssMB, false});
+            }
+            metrics.put("gcMaxPauseMillis", new Object[] {(double) gcMaxPauseMillis, false});
+            metrics.put("peakThreads", new Object[] {(double) peakThreads, false});
+            metrics.put("edtMaxLagMillis", new Object[] {(double) edtMaxLagMillis, false});
+            metrics.put("etaErrorPercent", new Object[] {etaErrorPercent, false});
+            return metrics;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true"); // La cola de eventos funciona sin pantalla
+
+        List<String> corpora = List.of("tiny", "huge", "mixed", "deep");
+        int scale = 1;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        Path workDir = Path.of(System.getProperty("java.io.tmpdir"), "compressor-soak");
+        Path baseline = null;
+        boolean updateBaseline = false;
+        double tolerance = 0.25;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--corpus=")) {
+                corpora = Arrays.asList(value.split(","));
+            } else if (arg.startsWith("--scale=")) {
+                scale = Integer.parseInt(value);
+            } else if (arg.startsWith("--threads=")) {
+                maxThreads = Integer.parseInt(value);
+            } else if (arg.startsWith("--work-dir=")) {
+                workDir = Path.of(value);
+            } else if (arg.startsWith("--baseline=")) {
+                baseline = Path.of(value);
+            } else if (arg.equals("--update-baseline")) {
+                updateBaseline = true;
+            } else if (arg.startsWith("--tolerance=")) {
+                tolerance = Double.parseDouble(value);
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                System.exit(2);
+            }
+        }
+
+        List<RunResult> results = new ArrayList<>();
+        for (String corpus : corpora) {
+            List<File> files = generateCorpus(corpus, scale, workDir.resolve("corpus-" + corpus + "-x" + scale));
+            for (int threads : threadCounts(maxThreads)) {
+                results.add(run(corpus, files, threads, false, workDir));
+            }
+            results.add(run(corpus, files, 2 * maxThreads, true, workDir));
+        }
+
+        printResults(results);
+        writeCsv(results, workDir.resolve("results.csv"));
+
+        if (baseline != null) {
+            if (updateBaseline || !Files.exists(baseline)) {
+                saveBaseline(results, baseline);
+                System.out.println("Baseline written to " + baseline);
+            } else if (!checkBaseline(results, baseline, tolerance)) {
+                System.exit(1);
+            }
+        }
+        boolean allOk = results.stream().allMatch(r -> r.success);
+        System.exit(allOk ? 0 : 1);
+    }
+
+    // Potencias de dos hasta el máximo, más el máximo si no es potencia de dos
+    private static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    // Ejecuta una compresión completa y recoge las métricas
+    private static RunResult run(String corpus, List<File> files, int threads, boolean adaptive, Path workDir) throws Exception {
+        System.gc(); // Empieza cada ejecución con el heap lo más limpio posible
+        RunResult result = new RunResult();
+        result.corpus = corpus;
+        result.threads = threads;
+        result.adaptive = adaptive;
+        result.files = files.size();
+
+        // Selección de archivos, igual que tras el diálogo de la interfaz
+        long selectionStart = System.nanoTime();
+        FileSelectionModel selectionModel = new FileSelectionModel();
+        selectionModel.addFiles(files);
+        result.bytes = selectionModel.getTotalSize();
+        selectionModel.getFormattedTotalSize();
+        result.selectionMillis = (System.nanoTime() - selectionStart) / 1_000_000;
+
+        // Reinicia los picos de memoria, RSS e hilos
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        resetPeakRss();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+        long[] gcBefore = gcTotals();
+        AtomicLong maxPause = new AtomicLong();
+        List<Runnable> removeGcListeners = listenGcPauses(maxPause);
+
+        // Mismo uso del listener que el controlador: actualiza el progreso y encola en la interfaz
+        ProgressData progressData = new ProgressData();
+        progressData.initialize(files.size(), result.bytes);
+        AtomicLong events = new AtomicLong();
+        AtomicLong edtMaxLag = new AtomicLong();
+        List<long[]> etaSamples = Collections.synchronizedList(new ArrayList<>()); // {momento, ETA en ms}
+        int[] nextDecile = {1};
+
+        Path output = workDir.resolve("soak-output.zip");
+        FileCompressor compressor = new FileCompressor();
+        compressor.setFilesToCompress(files);
+        compressor.setOutputPath(output.toString());
+        compressor.setThreadCount(threads);
+        compressor.setAdaptiveConcurrency(adaptive);
+        AtomicLong changes = new AtomicLong(-1); // La primera notificación es el valor inicial
+        AtomicLong workers = new AtomicLong(Math.min(threads, files.size()));
+        compressor.setCompressionListener(new FileCompressor.CompressionListener() {
+            @Override
+            public void onProgressUpdate(int fileIndex, int progress) {
+                events.incrementAndGet();
+                File file = files.get(fileIndex);
+                synchronized (progressData) {
+                    progressData.updateCurrentFileProgress(file.getName(), file.length(), (long) (file.length() * progress / 100.0));
+                    sampleEta(progressData, etaSamples, nextDecile);
+                }
+                long queuedAt = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    long lag = (System.nanoTime() - queuedAt) / 1_000_000;
+                    edtMaxLag.accumulateAndGet(lag, Math::max);
+                });
+            }
+
+            @Override
+            public void onFileComplete(int fileIndex) {
+                events.incrementAndGet();
+                synchronized (progressData) {
+                    progressData.completeCurrentFile();
+                    sampleEta(progressData, etaSamples, nextDecile);
+                }
+            }
+
+            @Override
+            public void onCompressionComplete() {
+            }
+
+            @Override
+            public void onError(File file, Exception e) {
+                System.err.println("Error compressing " + file + ": " + e.getMessage());
+            }
+
+            @Override
+            public void onConcurrencyChange(int activeWorkers, String reason) {
+                changes.incrementAndGet();
+                workers.set(activeWorkers);
+                System.out.println("  workers=" + activeWorkers + " (" + reason + ")");
+            }
+        });
+
+        long start = System.nanoTime();
+        result.success = compressor.startCompression();
+        long end = System.nanoTime();
+        long endMillis = System.currentTimeMillis();
+        SwingUtilities.invokeAndWait(() -> { }); // Espera a que se vacíe la cola de eventos
+
+        result.wallMillis = Math.max(1, (end - start) / 1_000_000);
+        result.throughputMBs = (result.bytes / (double) MB) / (result.wallMillis / 1000.0);
+        result.peakHeapMB = peakHeapBytes() / MB;
+        long peakRssKb = readPeakRssKb();
+        result.peakRssMB = peakRssKb >= 0 ? peakRssKb / 1024 : -1;
+        long[] gcAfter = gcTotals();
+        result.gcCount = gcAfter[0] - gcBefore[0];
+        result.gcTotalMillis = gcAfter[1] - gcBefore[1];
+        removeGcListeners.forEach(Runnable::run);
+        result.gcMaxPauseMillis = maxPause.get();
+        result.peakThreads = threadBean.getPeakThreadCount();
+        result.progressEvents = events.get();
+        result.progressEventsPerSec = events.get() / (result.wallMillis / 1000.0);
+        result.edtMaxLagMillis = edtMaxLag.get();
+        result.etaErrorPercent = etaError(etaSamples, endMillis, result.wallMillis);
+        result.finalWorkers = (int) workers.get();
+        result.concurrencyChanges = (int) Math.max(0, changes.get());
+
+        Files.deleteIfExists(output);
+        System.out.printf("%-6s threads=%-3d%s %8.1f MB/s  heap=%d MB  rss=%d MB  threads=%d%n",
+            corpus, threads, adaptive ? " auto(" + result.finalWorkers + ")" : "", result.throughputMBs,
+            result.peakHeapMB, result.peakRssMB, result.peakThreads);
+        return result;
+    }
+
+    // Guarda la estimación de tiempo restante cada vez que el progreso pasa de una décima
+    private static void sampleEta(ProgressData progressData, List<long[]> samples, int[] nextDecile) {
+        int overall = progressData.getOverallProgress();
+        while (nextDecile[0] <= 9 && overall >= nextDecile[0] * 10) {
+            samples.add(new long[] {System.currentTimeMillis(), progressData.getEstimatedRemainingTime()});
+            nextDecile[0]++;
+        }
+    }
+
+    // Error medio de la estimación respecto al tiempo que realmente faltaba, en % de la duración
+    private static double etaError(List<long[]> samples, long endMillis, long wallMillis) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        double total = 0;
+        for (long[] sample : samples) {
+            long actual = Math.max(0, endMillis - sample[0]);
+            total += Math.abs(sample[1] - actual);
+        }
+        return total / samples.size() * 100.0 / wallMillis;
+    }
+
+    // ---------------------------------------------------------------- Generación de corpus
+
+    private static List<File> generateCorpus(String corpus, int scale, Path dir) throws IOException {
+        Path marker = dir.resolve(".complete");
+        if (!Files.exists(marker)) { // Los corpus se generan una vez y se reutilizan entre ejecuciones
+            deleteTree(dir);
+            Files.createDirectories(dir);
+            Random random = new Random(42L + corpus.hashCode()); // Semilla fija: corpus reproducibles
+            System.out.println("Generating corpus " + corpus + " x" + scale + " in " + dir);
+            switch (corpus) {
+                case "tiny":
+                    for (int i = 0; i < 20_000 * scale; i++) {
+                        Path sub = dir.resolve("d" + (i / 1000));
+                        Files.createDirectories(sub);
+                        Files.write(sub.resolve("tiny-" + i + ".json"), textBlock(random, 100 + random.nextInt(1900)));
+                    }
+                    break;
+                case "huge":
+                    writeLargeFile(dir.resolve("huge.bin"), 256L * MB * scale, random);
+                    break;
+                case "mixed":
+                    for (int i = 0; i < 100 * scale; i++) {
+                        int kind = i % 3;
+                        Path file = dir.resolve("mixed-" + i + (kind == 0 ? ".jpg" : kind == 1 ? ".log" : ".dat"));
+                        int size = (64 + random.nextInt(4096)) * 1024;
+                        byte[] data = kind == 1 ? textBlock(random, size) : new byte[size];
+                        if (kind == 0) {
+                            random.nextBytes(data); // Contenido incomprimible, como fotos o vídeo
+                        }
+                        Files.write(file, data);
+                    }
+                    break;
+                case "deep":
+                    Path current = dir;
+                    for (int i = 0; i < 2_000 * scale; i++) {
+                        if (i % 100 == 0) {
+                            current = dir; // Cada 100 archivos empieza una rama nueva
+                        }
+                        current = current.resolve("level" + (i % 100 / 5));
+                        Files.createDirectories(current);
+                        Files.write(current.resolve("deep-" + i + ".txt"), textBlock(random, 500 + random.nextInt(20_000)));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown corpus: " + corpus);
+            }
+            Files.writeString(marker, "ok");
+        }
+
+        List<File> files = new ArrayList<>();
+        try (var stream = Files.walk(dir)) {
+            stream.filter(Files::isRegularFile)
+                  .filter(p -> !p.equals(marker))
+                  .sorted()
+                  .forEach(p -> files.add(p.toFile()));
+        }
+        return files;
+    }
+
+    // Texto repetitivo parecido a registros JSON
+    private static byte[] textBlock(Random random, int size) {
+        StringBuilder text = new StringBuilder(size + 128);
+        while (text.length() < size) {
+            text.append("{\"id\":").append(random.nextInt(1_000_000))
+                .append(",\"user\":\"user").append(random.nextInt(500))
+                .append("\",\"status\":\"").append(random.nextBoolean() ? "active" : "idle")
+                .append("\",\"ts\":").append(1_700_000_000L + random.nextInt(10_000_000)).append("}\n");
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Archivo grande con bloques de texto y bloques aleatorios alternados
+    private static void writeLargeFile(Path file, long size, Random random) throws IOException {
+        byte[] text = textBlock(random, (int) MB);
+        byte[] noise = new byte[(int) MB];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (long written = 0; written < size; written += MB) {
+                if (random.nextInt(4) == 0) {
+                    random.nextBytes(noise);
+                    out.write(noise);
+                } else {
+                    out.write(text);
+                }
+            }
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (var stream = Files.walk(dir)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- Métricas del proceso
+
+    // Reinicia el pico de RSS del proceso (Linux 4.0 o posterior)
+    private static void resetPeakRss() {
+        try {
+            Files.writeString(Path.of("/proc/self/clear_refs"), "5");
+        } catch (IOException | UnsupportedOperationException e) {
+            // Sin permiso o sistema no Linux: el pico será el del proceso completo
+        }
+    }
+
+    // Pico de memoria residente en KB, o -1 si no se puede leer
+    private static long readPeakRssKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Sistema no Linux
+        }
+        return -1;
+    }
+
+    private static long peakHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    // {colecciones, milisegundos} acumulados por todos los recolectores
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, time};
+    }
+
+    // Registra la pausa más larga de GC; devuelve las acciones para dejar de escuchar
+    private static List<Runnable> listenGcPauses(AtomicLong maxPause) {
+        List<Runnable> removers = new ArrayList<>();
+        NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                maxPause.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(listener, null, null);
+                removers.add(() -> {
+                    try {
+                        emitter.removeNotificationListener(listener);
+                    } catch (javax.management.ListenerNotFoundException e) {
+                        // Ya se había quitado
+                    }
+                });
+            }
+        }
+        return removers;
+    }
+
+    // ---------------------------------------------------------------- Informe y línea base
+
+    private static void printResults(List<RunResult> results) {
+        System.out.println();
+        System.out.printf("%-6s %6s %4s %8s %9s %9s %7s %7s %6s %6s %7s %9s %7s %7s %8s%n",
+            "corpus", "thr", "wrk", "files", "MB/s", "wall ms", "heapMB", "rssMB", "gcN", "gcMax", "threads",
+            "events/s", "edtLag", "eta%", "selectMs");
+        for (RunResult r : results) {
+            System.out.printf("%-6s %6s %4d %8d %9.1f %9d %7d %7d %6d %6d %7d %9.0f %7d %7.1f %8d%s%n",
+                r.corpus, (r.adaptive ? "<=" : "") + r.threads, r.finalWorkers, r.files, r.throughputMBs, r.wallMillis, r.peakHeapMB, r.peakRssMB, r.gcCount,
+                r.gcMaxPauseMillis, r.peakThreads, r.progressEventsPerSec, r.edtMaxLagMillis, r.etaErrorPercent,
+                r.selectionMillis, r.success ? "" : "  FAILED");
+        }
+    }
+
+    private static void writeCsv(List<RunResult> results, Path csv) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("corpus,threads,adaptive,finalWorkers,concurrencyChanges,files,bytes,wallMillis,throughputMBs,peakHeapMB,peakRssMB,gcCount,gcTotalMillis,"
+                + "gcMaxPauseMillis,peakThreads,progressEvents,progressEventsPerSec,edtMaxLagMillis,etaErrorPercent,selectionMillis,success");
+            for (RunResult r : results) {
+                out.println(String.join(",", r.corpus, "" + r.threads, "" + r.adaptive, "" + r.finalWorkers,
+                    "" + r.concurrencyChanges, "" + r.files, "" + r.bytes, "" + r.wallMillis,
+                    String.format(Locale.ROOT, "%.2f", r.throughputMBs), "" + r.peakHeapMB, "" + r.peakRssMB, "" + r.gcCount,
+                    "" + r.gcTotalMillis, "" + r.gcMaxPauseMillis, "" + r.peakThreads, "" + r.progressEvents,
+                    String.format(Locale.ROOT, "%.1f", r.progressEventsPerSec), "" + r.edtMaxLagMillis,
+                    String.format(Locale.ROOT, "%.1f", r.etaErrorPercent), "" + r.selectionMillis, "" + r.success));
+            }
+        }
+        System.out.println("Results written to " + csv);
+    }
+
+    private static void saveBaseline(List<RunResult> results, Path baseline) throws IOException {
+        Properties properties = new Properties();
+        for (RunResult r : results) {
+            for (Map.Entry<String, Object[]> metric : r.metrics().entrySet()) {
+                properties.setProperty(r.key() + "." + metric.getKey(),
+                    String.format(Locale.ROOT, "%.2f", (Double) metric.getValue()[0]));
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(baseline)) {
+            properties.store(out, "FileCompressor load test baseline");
+        }
+    }
+
+    // Compara con la línea base; devuelve false si alguna métrica empeoró más que la tolerancia
+    private static boolean checkBaseline(List<RunResult> results, Path baseline, double tolerance) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(baseline)) {
+            properties.load(in);
+        }
+        boolean ok = true;
+        for (RunResult r : results) {
+            for (Map.Entry<String, Object[]> metric : r.metrics().entrySet()) {
+                String key = r.key() + "." + metric.getKey();
+                String stored = properties.getProperty(key);
+                if (stored == null) {
+                    continue; // Ejecución sin línea base
+                }
+                double expected = Double.parseDouble(stored);
+                double actual = (Double) metric.getValue()[0];
+                boolean higherIsBetter = (Boolean) metric.getValue()[1];
+                // Margen absoluto pequeño para que valores cercanos a cero no fallen por ruido
+                double slack = Math.abs(expected) * tolerance + (higherIsBetter ? 0 : 5);
+                boolean regressed = higherIsBetter ? actual < expected - slack : actual > expected + slack;
+                if (regressed) {
+                    System.out.printf("REGRESSION %s: %.2f (baseline %.2f)%n", key, actual, expected);
+                    ok = false;
+                }
+            }
+        }
+        System.out.println(ok ? "No regressions against " + baseline : "Regressions found against " + baseline);
+        return ok;
+    }
+}
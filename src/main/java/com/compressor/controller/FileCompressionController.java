@@ -54,13 +54,17 @@ public class FileCompressionController { // Controlador principal de la compresi
             return;
         }
 
-        JFileChooser fileChooser = new JFileChooser(); // Crea un cuadro de diálogo para guardar el archivo comprimido
-        fileChooser.setDialogTitle("Save ZIP File"); // Título del cuadro de diálogo
-        fileChooser.setSelectedFile(new File("compressed.zip")); // Establece un archivo por defecto para guardar
+        // En modo de archivos separados cada .gz se escribe junto a su original, no hay nada que elegir
+        if (mainView.isSeparateFilesSelected()) {
+            prepareAndStartCompression(files, null);
+            return;
+        }
+
+        // Muestra el cuadro de diálogo para guardar el archivo comprimido (el selector se reutiliza)
+        File outputFile = selectionModel.showSaveDialog(mainView);
 
         // Si el usuario elige un archivo para guardar
-        if (fileChooser.showSaveDialog(mainView) == JFileChooser.APPROVE_OPTION) {
-            File outputFile = fileChooser.getSelectedFile(); // Obtiene el archivo seleccionado para guardar
+        if (outputFile != null) {
             String outputPath = outputFile.getAbsolutePath(); // Obtiene la ruta absoluta del archivo de salida
 
             // Si el archivo no tiene la extensión .zip, la agrega
@@ -73,37 +77,50 @@ public class FileCompressionController { // Controlador principal de la compresi
         }
     }
 
-    // Configura y comienza la compresión de los archivos seleccionados
+    // Configura y comienza la compresión de los archivos seleccionados (outputPath null = un .gz por archivo)
     private void prepareAndStartCompression(List<File> files, String outputPath) {
         progressData.initialize(files.size(), selectionModel.getTotalSize()); // Inicializa los datos de progreso de la compresión
         compressor.setFilesToCompress(files); // Establece los archivos a comprimir en el compresor
         compressor.setOutputPath(outputPath); // Establece la ruta de salida para el archivo comprimido
+        compressor.setOutputMode(outputPath == null
+            ? FileCompressor.OutputMode.SEPARATE_GZIP
+            : FileCompressor.OutputMode.ZIP_ARCHIVE); // Sin ruta de salida, un .gz por archivo
+        compressor.setTargetDirectory(null); // Los .gz se escriben junto a cada archivo
+        compressor.setUseDictionary(mainView.isDictionaryModeSelected()); // Activa el diccionario compartido si se eligió
+        compressor.setWriteIndex(mainView.isIndexSelected()); // Escribe el índice de acceso directo si se eligió
 
         // Establece el listener que maneja los eventos de progreso
         compressor.setCompressionListener(new FileCompressor.CompressionListener() {
             @Override
             public void onProgressUpdate(int fileIndex, int progress) { // Actualiza el progreso de la compresión
                 File currentFile = files.get(fileIndex); // Obtiene el archivo actual
-                progressData.updateCurrentFileProgress(
-                    currentFile.getName(), // Nombre del archivo
-                    currentFile.length(), // Tamaño total del archivo
-                    (long) (currentFile.length() * progress / 100.0) // Tamaño procesado hasta el momento
-                );
+                int overallProgress;
+                String processedSize;
+                String totalSize;
+                String remainingTime;
+                synchronized (progressData) { // Varios hilos de compresión informan a la vez
+                    progressData.updateCurrentFileProgress(
+                        currentFile.getName(), // Nombre del archivo
+                        currentFile.length(), // Tamaño total del archivo
+                        (long) (currentFile.length() * progress / 100.0) // Tamaño procesado hasta el momento
+                    );
+                    overallProgress = progressData.getOverallProgress(); // Progreso general de la compresión
+                    processedSize = progressData.getProcessedSize(); // Tamaño procesado hasta ahora
+                    totalSize = progressData.getTotalSize(); // Tamaño total de todos los archivos
+                    remainingTime = progressData.getFormattedRemainingTime(); // Tiempo restante formateado
+                }
 
                 SwingUtilities.invokeLater(() -> { // Actualiza la interfaz gráfica en el hilo principal
                     progressDialog.updateCurrentFile(currentFile.getName(), progress); // Actualiza el progreso del archivo actual
-                    progressDialog.updateOverallProgress(
-                        progressData.getOverallProgress(), // Progreso general de la compresión
-                        progressData.getProcessedSize(), // Tamaño procesado hasta ahora
-                        progressData.getTotalSize(), // Tamaño total de todos los archivos
-                        progressData.getFormattedRemainingTime() // Tiempo restante formateado
-                    );
+                    progressDialog.updateOverallProgress(overallProgress, processedSize, totalSize, remainingTime);
                 });
             }
 
             @Override
             public void onFileComplete(int fileIndex) { // Cuando un archivo ha sido comprimido
-                progressData.completeCurrentFile(); // Marca el archivo como completado
+                synchronized (progressData) {
+                    progressData.completeCurrentFile(); // Marca el archivo como completado
+                }
             }
 
             @Override
@@ -115,6 +132,11 @@ public class FileCompressionController { // Controlador principal de la compresi
                 });
             }
 
+            @Override
+            public void onConcurrencyChange(int activeWorkers, String reason) { // Cuando cambia el número de hilos activos
+                progressDialog.updateWorkers(activeWorkers, reason); // Muestra la decisión en el diálogo de progreso
+            }
+
             @Override
             public void onError(File file, Exception e) { // Si ocurre un error durante la compresión
                 SwingUtilities.invokeLater(() -> { // Actualiza la interfaz gráfica en el hilo principal
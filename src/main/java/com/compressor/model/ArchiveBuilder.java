@@ -0,0 +1,358 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de streams
+import java.nio.ByteBuffer; // Importa ByteBuffer para aceptar datos en memoria
+import java.nio.channels.Channels; // Importa Channels para escribir en un canal como si fuera un stream
+import java.nio.channels.WritableByteChannel; // Importa el tipo de canal de salida aceptado
+import java.nio.file.Files; // Importa Files para abrir archivos a partir de un Path
+import java.nio.file.NoSuchFileException; // Importa la excepción de los archivos borrados antes de escribirlos
+import java.nio.file.Path; // Importa Path para aceptar rutas del sistema de archivos
+import java.util.ArrayList; // Importa ArrayList para guardar las entradas
+import java.util.List; // Importa la interfaz List para manejar listas de entradas
+import java.util.concurrent.*; // Importa las clases de concurrencia para la ejecución asíncrona
+import java.util.concurrent.atomic.AtomicBoolean; // Importa AtomicBoolean para marcar los streams ya leídos
+import java.util.concurrent.atomic.AtomicInteger; // Importa AtomicInteger para numerar los hilos
+import java.util.function.BooleanSupplier; // Importa BooleanSupplier para comprobar la cancelación
+import java.util.zip.*; // Importa clases para la compresión de archivos en formato ZIP
+
+/**
+ * API programática para construir archivos ZIP sin pasar por la interfaz gráfica.
+ * Acepta rutas, arrays de bytes, ByteBuffer e InputStream como origen y escribe en cualquier
+ * OutputStream o WritableByteChannel, sin archivos temporales.
+ *
+ * Cada builder guarda solo la descripción del trabajo; la compresión se ejecuta en un pool de
+ * hilos compartido por todos los builders, así que se puede usar desde muchos hilos a la vez
+ * sin crear compresores adicionales. El pool tiene un hilo por núcleo y cada trabajo ocupa su
+ * hilo durante toda la escritura, también mientras espera a una salida lenta (un socket o un
+ * pipe que no se lee): si varios trabajos así coinciden, los demás quedan en cola. Para esas
+ * salidas conviene pasar un executor propio con executor(Executor).
+ */
+public class ArchiveBuilder {
+    private static final ExecutorService SHARED_EXECUTOR = createExecutor(); // Pool compartido por todos los trabajos
+
+    private final List<Source> sources = new ArrayList<>(); // Entradas que se agregarán al ZIP
+    private int level = Deflater.DEFAULT_COMPRESSION; // Nivel de compresión
+    private boolean skipMissing; // Indica si se omiten los archivos que ya no existen al escribir
+    private Executor executor = SHARED_EXECUTOR; // Donde se ejecutan las escrituras asíncronas
+
+    // Abre los datos de una entrada en el momento de escribirla
+    private interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    // Origen de los datos de una entrada
+    private static final class Source {
+        private final String name; // Nombre de la entrada dentro del ZIP
+        private final Opener opener; // Forma de abrir los datos
+
+        Source(String name, Opener opener) {
+            this.name = name;
+            this.opener = opener;
+        }
+    }
+
+    /**
+     * Resultado de la compresión de una entrada.
+     */
+    public static final class EntryResult {
+        private final String name;
+        private final long size;
+        private final long compressedSize;
+        private final long crc;
+
+        EntryResult(String name, long size, long compressedSize, long crc) {
+            this.name = name;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.crc = crc;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+    }
+
+    /**
+     * Crea un builder vacío.
+     * @return Nuevo builder
+     */
+    public static ArchiveBuilder create() {
+        return new ArchiveBuilder();
+    }
+
+    /**
+     * Define el nivel de compresión de todas las entradas.
+     * @param level Nivel entre 0 y 9, o Deflater.DEFAULT_COMPRESSION
+     * @return Este builder
+     */
+    public ArchiveBuilder level(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * Ejecuta las escrituras asíncronas de este builder en el executor indicado en lugar del
+     * pool compartido.
+     * @param executor Executor para writeTo
+     * @return Este builder
+     */
+    public ArchiveBuilder executor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Indica qué hacer con los archivos agregados con add(Path) que se borran antes de escribir
+     * el ZIP: por defecto falla todo el ZIP; con true se omite la entrada y no aparece en los
+     * resultados.
+     * @param skipMissing true para omitir los archivos que ya no existen
+     * @return Este builder
+     */
+    public ArchiveBuilder skipMissing(boolean skipMissing) {
+        this.skipMissing = skipMissing;
+        return this;
+    }
+
+    /**
+     * Agrega un archivo usando su nombre como nombre de la entrada.
+     * @param path Archivo a agregar
+     * @return Este builder
+     */
+    public ArchiveBuilder add(Path path) {
+        return add(path.getFileName().toString(), path);
+    }
+
+    /**
+     * Agrega un archivo con el nombre de entrada indicado.
+     * @param name Nombre de la entrada dentro del ZIP
+     * @param path Archivo a agregar
+     * @return Este builder
+     */
+    public ArchiveBuilder add(String name, Path path) {
+        return addSource(name, () -> Files.newInputStream(path));
+    }
+
+    /**
+     * Agrega datos en memoria. El array no se copia, no debe modificarse hasta terminar.
+     * @param name Nombre de la entrada dentro del ZIP
+     * @param data Contenido de la entrada
+     * @return Este builder
+     */
+    public ArchiveBuilder add(String name, byte[] data) {
+        return addSource(name, () -> new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Agrega los bytes entre la posición y el límite actuales del buffer. La posición del
+     * buffer original no cambia y moverla después no afecta a la entrada; el contenido no se
+     * copia y no debe modificarse hasta terminar.
+     * @param name Nombre de la entrada dentro del ZIP
+     * @param data Contenido de la entrada
+     * @return Este builder
+     */
+    public ArchiveBuilder add(String name, ByteBuffer data) {
+        ByteBuffer view = data.duplicate(); // Se toma ahora: la posición y el límite son los de la llamada
+        return addSource(name, () -> new ByteBufferInputStream(view.duplicate()));
+    }
+
+    /**
+     * Agrega el contenido de un stream. El stream se lee una sola vez y se cierra al terminar,
+     * así que un builder con entradas de este tipo solo se puede escribir una vez: las
+     * escrituras siguientes fallan con IllegalStateException.
+     * @param name Nombre de la entrada dentro del ZIP
+     * @param in Stream con el contenido de la entrada
+     * @return Este builder
+     */
+    public ArchiveBuilder add(String name, InputStream in) {
+        AtomicBoolean consumed = new AtomicBoolean(); // Indica si alguna escritura ya leyó el stream
+        return addSource(name, () -> {
+            if (consumed.getAndSet(true)) {
+                throw new IllegalStateException("Stream for entry " + name + " was already written");
+            }
+            return in;
+        });
+    }
+
+    private ArchiveBuilder addSource(String name, Opener opener) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Entry name must not be empty");
+        }
+        sources.add(new Source(name, opener));
+        return this;
+    }
+
+    /**
+     * Escribe el ZIP en un stream de forma asíncrona. El stream no se cierra.
+     * Cancelar el Future detiene la escritura en el siguiente bloque copiado; lo ya escrito
+     * queda en la salida como un ZIP incompleto, sin directorio central.
+     * @param out Stream de salida
+     * @return Future con el resultado de cada entrada escrita, en el orden en que se agregaron
+     */
+    public CompletableFuture<List<EntryResult>> writeTo(OutputStream out) {
+        List<Source> snapshot = List.copyOf(sources); // El builder puede seguir usándose mientras tanto
+        int jobLevel = level;
+        boolean jobSkipMissing = skipMissing;
+        CompletableFuture<List<EntryResult>> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(write(snapshot, jobLevel, jobSkipMissing, out, result::isCancelled));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e); // No hace nada si el Future ya se canceló
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Escribe el ZIP en un canal de forma asíncrona. El canal no se cierra.
+     * @param channel Canal de salida, por ejemplo un socket o un pipe
+     * @return Future con el resultado de cada entrada escrita, en el orden en que se agregaron
+     */
+    public CompletableFuture<List<EntryResult>> writeTo(WritableByteChannel channel) {
+        return writeTo(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Escribe el ZIP en el hilo actual. El stream no se cierra.
+     * @param out Stream de salida
+     * @return Resultado de cada entrada escrita, en el orden en que se agregaron
+     * @throws IOException Si ocurre un error leyendo un origen o escribiendo la salida
+     */
+    public List<EntryResult> write(OutputStream out) throws IOException {
+        return write(List.copyOf(sources), level, skipMissing, out, () -> false);
+    }
+
+    private static List<EntryResult> write(List<Source> sources, int level, boolean skipMissing, OutputStream out,
+            BooleanSupplier cancelled) throws IOException {
+        List<EntryResult> results = new ArrayList<>(sources.size());
+        byte[] buffer = new byte[8192]; // Buffer para copiar los datos en bloques
+        NonClosingOutputStream target = new NonClosingOutputStream(out);
+
+        // El ZIP se cierra para liberar el Deflater, pero el stream del llamador queda abierto
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(target))) {
+            zos.setLevel(level);
+            for (Source source : sources) {
+                checkCancelled(cancelled, target);
+                InputStream opened;
+                try {
+                    opened = source.opener.open(); // Se abre antes de empezar la entrada, así se puede omitir
+                } catch (NoSuchFileException e) {
+                    if (skipMissing) {
+                        continue;
+                    }
+                    throw e;
+                }
+                ZipEntry entry = new ZipEntry(source.name);
+                try (InputStream in = opened) {
+                    zos.putNextEntry(entry);
+                    int bytesRead;
+                    while ((bytesRead = in.read(buffer)) != -1) {
+                        checkCancelled(cancelled, target);
+                        zos.write(buffer, 0, bytesRead);
+                    }
+                }
+                zos.closeEntry(); // Tras cerrar la entrada ya se conocen tamaños y CRC
+                results.add(new EntryResult(entry.getName(), entry.getSize(), entry.getCompressedSize(), entry.getCrc()));
+            }
+        }
+        return results;
+    }
+
+    // Si se canceló la escritura, deja de escribir en la salida (tampoco el directorio central) y la detiene
+    private static void checkCancelled(BooleanSupplier cancelled, NonClosingOutputStream target) {
+        if (cancelled.getAsBoolean()) {
+            target.detach();
+            throw new CancellationException();
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "archive-builder-" + counter.incrementAndGet());
+            thread.setDaemon(true); // No impide que la aplicación termine
+            return thread;
+        });
+    }
+
+    // Stream que transmite todo excepto close(), para no cerrar la salida del llamador
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private boolean detached; // Tras cancelar, lo que queda por escribir se descarta
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        void detach() {
+            detached = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!detached) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!detached) {
+                out.write(b, off, len); // Evita la escritura byte a byte de FilterOutputStream
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!detached) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    // Stream de lectura sobre un ByteBuffer
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
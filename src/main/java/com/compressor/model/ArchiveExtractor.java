@@ -0,0 +1,206 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de archivos
+import java.nio.ByteBuffer; // Importa ByteBuffer para leer el campo extra de las entradas
+import java.nio.ByteOrder; // Importa ByteOrder porque los campos del ZIP son little-endian
+import java.nio.file.Path; // Importa Path para la ruta del ZIP
+import java.util.List; // Importa la interfaz List para las entradas del ZIP
+import java.util.zip.*; // Importa clases para la lectura de archivos ZIP
+
+/**
+ * Extrae archivos ZIP generados por FileCompressor, incluidos los que usan diccionario compartido.
+ */
+public class ArchiveExtractor {
+
+    /**
+     * Extrae todas las entradas del archivo ZIP en el directorio indicado.
+     * @param archive Archivo ZIP a extraer
+     * @param targetDir Directorio donde se escriben los archivos
+     * @throws IOException Si ocurre un error de lectura, escritura o el contenido no es válido
+     */
+    public void extract(File archive, File targetDir) throws IOException {
+        if (!targetDir.isDirectory() && !targetDir.mkdirs()) {
+            throw new IOException("Cannot create directory " + targetDir);
+        }
+        String targetPath = targetDir.getCanonicalPath() + File.separator;
+
+        Path path = archive.toPath();
+        List<ZipDirectory.Entry> entries = ZipDirectory.read(path); // ZipFile no admite el método de las entradas con diccionario
+        byte[] dictionary = readDictionary(path, entries); // Vacío si el ZIP no usa diccionario
+
+        for (ZipDirectory.Entry entry : entries) {
+            if (entry.isDirectory() || entry.getName().equals(FileCompressor.DICTIONARY_ENTRY)) {
+                continue;
+            }
+
+            File output = new File(targetDir, entry.getName());
+            if (!output.getCanonicalPath().startsWith(targetPath)) { // Evita escribir fuera del directorio destino
+                throw new IOException("Entry outside target directory: " + entry.getName());
+            }
+            File parent = output.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+
+            try (InputStream in = openEntry(path, entry, dictionary);
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    /**
+     * Abre una entrada del ZIP devolviendo su contenido original, y comprueba el tamaño y el CRC
+     * al llegar al final.
+     * @param archive Ruta del ZIP
+     * @param entry Entrada a leer
+     * @param dictionary Diccionario compartido del ZIP (vacío si no tiene)
+     * @return Stream con el contenido descomprimido
+     * @throws IOException Si la entrada usa un método no soportado o necesita un diccionario que el ZIP no contiene
+     */
+    static InputStream openEntry(Path archive, ZipDirectory.Entry entry, byte[] dictionary) throws IOException {
+        String name = entry.getName();
+        if ((entry.getFlags() & 1) != 0) {
+            throw new ZipException("Encrypted entry " + name);
+        }
+        int method = entry.getMethod();
+        // El campo extra solo se busca en entradas con el método propio: otro ZIP puede usar el mismo id
+        long[] info = method == ArchiveIndex.METHOD_DICTIONARY ? dictionaryInfo(entry.getExtra()) : null;
+        if (method == ArchiveIndex.METHOD_DICTIONARY && (info == null || dictionary.length == 0)) {
+            throw new ZipException("Missing dictionary for entry " + name);
+        }
+
+        long size = info != null ? info[0] : entry.getSize(); // El campo extra tiene el tamaño aunque no quepa en 32 bits
+        long crc = info != null ? info[1] : entry.getCrc();
+        return openData(archive, name, method, entry.getHeaderOffset(), entry.getCompressedSize(), size, crc, dictionary);
+    }
+
+    /**
+     * Abre los datos de una entrada a partir de su posición y comprueba el tamaño y el CRC
+     * originales al llegar al final. La usan tanto la extracción como ArchiveIndex.
+     * @param archive Ruta del ZIP
+     * @param name Nombre de la entrada, para los mensajes de error
+     * @param method ZipEntry.STORED, ZipEntry.DEFLATED o ArchiveIndex.METHOD_DICTIONARY
+     * @param headerOffset Posición de la cabecera local
+     * @param compressedSize Bytes que ocupan los datos
+     * @param size Tamaño original esperado
+     * @param crc CRC original esperado
+     * @param dictionary Diccionario compartido (solo para METHOD_DICTIONARY)
+     * @return Stream con el contenido original
+     * @throws IOException Si el método no está soportado o la cabecera local no es válida
+     */
+    static InputStream openData(Path archive, String name, int method, long headerOffset, long compressedSize, long size,
+            long crc, byte[] dictionary) throws IOException {
+        if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED && method != ArchiveIndex.METHOD_DICTIONARY) {
+            throw new ZipException("Unsupported method " + method + " for " + name);
+        }
+        InputStream raw = ZipDirectory.openRaw(archive, headerOffset, compressedSize, name);
+        switch (method) {
+            case ZipEntry.STORED:
+                return verified(raw, size, crc, name);
+            case ZipEntry.DEFLATED:
+                return verified(inflate(raw, new Inflater(true)), size, crc, name);
+            default:
+                Inflater inflater = new Inflater(true); // DEFLATE sin cabecera zlib, igual que al comprimir
+                inflater.setDictionary(dictionary);
+                return verified(inflate(raw, inflater), size, crc, name);
+        }
+    }
+
+    /**
+     * Envuelve el contenido de una entrada en un stream que comprueba el tamaño y el CRC
+     * esperados al llegar al final.
+     * @param in Contenido original de la entrada
+     * @param size Tamaño original esperado
+     * @param crc CRC original esperado
+     * @param name Nombre de la entrada, para los mensajes de error
+     * @return Stream que lanza ZipException al final si el contenido no coincide
+     */
+    static InputStream verified(InputStream in, long size, long crc, String name) {
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        return new FilterInputStream(checked) {
+            private long count; // Bytes entregados hasta el momento
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b == -1) {
+                    verify();
+                } else {
+                    count++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n == -1) {
+                    verify();
+                } else {
+                    count += n;
+                }
+                return n;
+            }
+
+            private void verify() throws IOException {
+                if (count != size || checked.getChecksum().getValue() != crc) {
+                    throw new ZipException("Corrupted entry " + name);
+                }
+            }
+        };
+    }
+
+    /**
+     * Lee el diccionario compartido del ZIP, si existe.
+     * @param archive Ruta del ZIP
+     * @param entries Entradas del directorio central
+     * @return El diccionario, o un array vacío si el ZIP no tiene
+     * @throws IOException Si ocurre un error de lectura
+     */
+    static byte[] readDictionary(Path archive, List<ZipDirectory.Entry> entries) throws IOException {
+        for (ZipDirectory.Entry entry : entries) {
+            if (entry.getName().equals(FileCompressor.DICTIONARY_ENTRY)) {
+                try (InputStream in = openEntry(archive, entry, new byte[0])) {
+                    return in.readAllBytes();
+                }
+            }
+        }
+        return new byte[0];
+    }
+
+    // Descomprime DEFLATE sin cabecera y libera el Inflater al cerrar
+    private static InputStream inflate(InputStream raw, Inflater inflater) {
+        return new InflaterInputStream(raw, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inflater.end(); // Libera la memoria nativa del Inflater
+            }
+        };
+    }
+
+    /**
+     * Busca en el campo extra la marca de entrada comprimida con diccionario.
+     * @param extra Campo extra de la entrada (puede ser null)
+     * @return {tamaño original, CRC original}, o null si la entrada es estándar
+     */
+    static long[] dictionaryInfo(byte[] extra) {
+        if (extra == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.remaining() >= 4) { // Recorre los bloques cabecera + longitud + datos
+            int id = buffer.getShort() & 0xFFFF;
+            int length = buffer.getShort() & 0xFFFF;
+            if (length > buffer.remaining()) {
+                return null;
+            }
+            if (id == FileCompressor.DICTIONARY_EXTRA_ID && length == 12) {
+                return new long[] {buffer.getLong(), buffer.getInt() & 0xFFFFFFFFL};
+            }
+            buffer.position(buffer.position() + length);
+        }
+        return null;
+    }
+}
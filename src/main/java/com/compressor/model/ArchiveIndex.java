@@ -0,0 +1,254 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de streams
+import java.nio.ByteBuffer; // Importa ByteBuffer para leer y escribir el índice
+import java.nio.MappedByteBuffer; // Importa MappedByteBuffer para mapear el índice en memoria
+import java.nio.channels.FileChannel; // Importa FileChannel para mapear el índice y leer el ZIP
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para los nombres de las entradas
+import java.nio.file.*; // Importa Path y Files para abrir los archivos
+import java.util.Arrays; // Importa Arrays para comparar nombres en bytes
+import java.util.List; // Importa la interfaz List para las entradas
+
+/**
+ * Índice de acceso directo que se guarda junto al ZIP (archivo.zip.idx).
+ * Contiene, ordenadas por nombre, la posición de la cabecera local, los tamaños y el CRC de cada
+ * entrada. El lector mapea el índice en memoria y busca con búsqueda binaria, así extraer una
+ * entrada de un ZIP con cientos de miles de archivos no necesita leer el directorio central
+ * ni guardarlo en el heap.
+ *
+ * Formato: cabecera de 32 bytes (magia, versión, número de entradas, reservado, tamaño y fecha
+ * de modificación del ZIP), un registro de 40 bytes por entrada y al final los nombres en UTF-8.
+ */
+public class ArchiveIndex implements Closeable {
+    public static final String SUFFIX = ".idx"; // Extensión del índice junto al ZIP
+    public static final int METHOD_DICTIONARY = 0x100; // Método propio: DEFLATE con el diccionario compartido
+
+    private static final int MAGIC = 0x5A494458; // "ZIDX"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 40;
+
+    private final Path archive; // ZIP al que pertenece el índice
+    private final FileChannel indexChannel; // Canal del índice, abierto mientras se use el mapeo
+    private final MappedByteBuffer index; // Índice mapeado en memoria
+    private final int count; // Número de entradas
+    private final int namesStart; // Posición donde empiezan los nombres
+
+    /**
+     * Datos de una entrada del índice.
+     */
+    public static final class Entry {
+        private final String name;
+        private final long headerOffset;
+        private final long compressedSize;
+        private final long size;
+        private final long crc;
+        private final int method;
+
+        /**
+         * @param name Nombre de la entrada
+         * @param headerOffset Posición de la cabecera local dentro del ZIP
+         * @param compressedSize Bytes que ocupan los datos en el ZIP
+         * @param size Tamaño original
+         * @param crc CRC del contenido original
+         * @param method ZipEntry.STORED, ZipEntry.DEFLATED o METHOD_DICTIONARY
+         */
+        public Entry(String name, long headerOffset, long compressedSize, long size, long crc, int method) {
+            this.name = name;
+            this.headerOffset = headerOffset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.crc = crc;
+            this.method = method;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getHeaderOffset() {
+            return headerOffset;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+    }
+
+    private ArchiveIndex(Path archive, FileChannel indexChannel, MappedByteBuffer index) throws IOException {
+        this.archive = archive;
+        this.indexChannel = indexChannel;
+        this.index = index;
+        if (index.capacity() < HEADER_SIZE || index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IOException("Not an archive index: " + archive + SUFFIX);
+        }
+        this.count = index.getInt(8);
+        this.namesStart = HEADER_SIZE + count * RECORD_SIZE;
+        // Un ZIP reescrito con la misma longitud se detecta por la fecha de modificación
+        if (index.getLong(16) != Files.size(archive) || index.getLong(24) != Files.getLastModifiedTime(archive).toMillis()) {
+            throw new IOException("Index is out of date for " + archive);
+        }
+    }
+
+    /**
+     * Abre el índice que acompaña a un ZIP.
+     * @param archive Ruta del ZIP
+     * @return Índice listo para buscar
+     * @throws IOException Si el índice no existe, no es válido o no corresponde al ZIP
+     */
+    public static ArchiveIndex open(Path archive) throws IOException {
+        FileChannel channel = FileChannel.open(indexPath(archive), StandardOpenOption.READ);
+        try {
+            return new ArchiveIndex(archive, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param archive Ruta del ZIP
+     * @return Ruta del índice que lo acompaña
+     */
+    public static Path indexPath(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Escribe el índice de un ZIP ya terminado; guarda su fecha de modificación actual, así
+     * que el ZIP no debe modificarse después.
+     * @param archive Ruta del ZIP
+     * @param entries Entradas del ZIP, en cualquier orden
+     * @param archiveSize Tamaño final del ZIP, para detectar índices desactualizados
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public static void write(Path archive, List<Entry> entries, long archiveSize) throws IOException {
+        // Los nombres se convierten una sola vez y se ordenan como bytes sin signo, igual que en find
+        byte[][] names = new byte[entries.size()][];
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = entries.get(i).name.getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(names[a], names[b]));
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(names.length).putInt(0).putLong(archiveSize)
+            .putLong(Files.getLastModifiedTime(archive).toMillis());
+
+        Path temp = archive.resolveSibling(archive.getFileName() + SUFFIX + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.write(header.array());
+            int nameOffset = 0;
+            for (int i : order) {
+                Entry entry = entries.get(i);
+                byte[] name = names[i];
+                out.writeInt(nameOffset);
+                out.writeInt(name.length);
+                out.writeLong(entry.headerOffset);
+                out.writeLong(entry.compressedSize);
+                out.writeLong(entry.size);
+                out.writeInt((int) entry.crc);
+                out.writeInt(entry.method);
+                nameOffset += name.length;
+            }
+            for (int i : order) {
+                out.write(names[i]);
+            }
+        }
+        Files.move(temp, indexPath(archive), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return Número de entradas del índice
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Busca una entrada por nombre con búsqueda binaria sobre el índice mapeado.
+     * @param name Nombre de la entrada
+     * @return La entrada, o null si no existe
+     */
+    public Entry find(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareName(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return readEntry(mid, name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Abre una entrada leyendo directamente su posición en el ZIP. Al llegar al final se
+     * comprueban el tamaño y el CRC guardados en el índice.
+     * @param name Nombre de la entrada
+     * @return Stream con el contenido original de la entrada; lanza ZipException al final si no coincide
+     * @throws IOException Si la entrada no existe o no se puede leer
+     */
+    public InputStream openEntry(String name) throws IOException {
+        Entry entry = find(name);
+        if (entry == null) {
+            throw new FileNotFoundException("No entry " + name + " in " + archive);
+        }
+        byte[] dictionary = new byte[0];
+        if (entry.method == METHOD_DICTIONARY) {
+            try (InputStream in = openEntry(FileCompressor.DICTIONARY_ENTRY)) {
+                dictionary = in.readAllBytes();
+            }
+        }
+        return ArchiveExtractor.openData(archive, name, entry.method, entry.headerOffset, entry.compressedSize,
+            entry.size, entry.crc, dictionary);
+    }
+
+    @Override
+    public void close() throws IOException {
+        indexChannel.close();
+    }
+
+    private int compareName(int record, byte[] key) {
+        int base = HEADER_SIZE + record * RECORD_SIZE;
+        int offset = namesStart + index.getInt(base);
+        int length = index.getInt(base + 4);
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(index.get(offset + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private Entry readEntry(int record, String name) {
+        int base = HEADER_SIZE + record * RECORD_SIZE;
+        return new Entry(name,
+            index.getLong(base + 8),
+            index.getLong(base + 16),
+            index.getLong(base + 24),
+            index.getInt(base + 32) & 0xFFFFFFFFL,
+            index.getInt(base + 36));
+    }
+}
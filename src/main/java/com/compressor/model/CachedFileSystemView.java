@@ -0,0 +1,247 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.File; // Importa la clase File para representar archivos y carpetas
+import java.io.FileNotFoundException; // Importa FileNotFoundException para los enlaces rotos
+import java.io.IOException; // Importa IOException para la creación de carpetas
+import java.util.LinkedHashMap; // Importa LinkedHashMap para descartar los elementos menos usados
+import java.util.Map; // Importa la interfaz Map para las cachés
+import java.util.concurrent.ConcurrentHashMap; // Importa ConcurrentHashMap porque la caché se llena desde otro hilo
+import javax.swing.Icon; // Importa Icon para los iconos de los archivos
+import javax.swing.filechooser.FileSystemView; // Importa la vista del sistema de archivos que se envuelve
+
+/**
+ * Vista del sistema de archivos que guarda en caché el contenido de las carpetas y si cada
+ * elemento es navegable. En carpetas de red con miles de archivos, listar y consultar cada
+ * entrada tarda segundos; con la caché el JFileChooser solo paga ese coste la primera vez.
+ * Una carpeta se vuelve a leer cuando cambia su fecha de modificación, que el sistema de
+ * archivos actualiza al crear, borrar o renombrar elementos dentro de ella. La caché de
+ * isTraversable guarda como mucho MAX_TRAVERSABLE elementos y descarta los menos usados.
+ */
+public class CachedFileSystemView extends FileSystemView {
+    private static final int MAX_TRAVERSABLE = 50_000; // Elementos como máximo en la caché de isTraversable
+
+    private final FileSystemView delegate; // Vista real del sistema de archivos
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>(); // Contenido de cada carpeta ya leída
+    private final Map<File, Boolean> traversable = new LinkedHashMap<>(16, 0.75f, true) { // En orden de uso; se accede sincronizado
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, Boolean> eldest) {
+            return size() > MAX_TRAVERSABLE;
+        }
+    };
+
+    // Contenido de una carpeta en el momento en que se leyó
+    private static final class Listing {
+        private final long lastModified; // Fecha de modificación de la carpeta al leerla
+        private final File[] files; // Elementos de la carpeta
+
+        Listing(long lastModified, File[] files) {
+            this.lastModified = lastModified;
+            this.files = files;
+        }
+    }
+
+    /**
+     * Crea la vista sobre la vista por defecto de la plataforma.
+     */
+    public CachedFileSystemView() {
+        this(FileSystemView.getFileSystemView());
+    }
+
+    /**
+     * Crea la vista sobre otra vista.
+     * @param delegate Vista real del sistema de archivos
+     */
+    public CachedFileSystemView(FileSystemView delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Lee por adelantado una carpeta y el tipo de sus elementos. Pensado para llamarse desde
+     * un hilo en segundo plano antes de que el usuario abra el diálogo.
+     * @param dir Carpeta a leer
+     */
+    public void prefetch(File dir) {
+        if (dir == null || !dir.isDirectory()) {
+            return;
+        }
+        for (File file : getFiles(dir, true)) {
+            isTraversable(file);
+        }
+    }
+
+    /**
+     * Descarta la información guardada de una carpeta.
+     * @param dir Carpeta que se debe volver a leer
+     */
+    public void invalidate(File dir) {
+        Listing removed = listings.remove(key(dir, true));
+        Listing removedHidden = listings.remove(key(dir, false));
+        forget(removed);
+        forget(removedHidden);
+    }
+
+    @Override
+    public File[] getFiles(File dir, boolean useFileHiding) {
+        String key = key(dir, useFileHiding);
+        long lastModified = dir.lastModified();
+        Listing listing = listings.get(key);
+        if (listing == null || listing.lastModified != lastModified) {
+            forget(listing); // La carpeta cambió: sus elementos pueden haber cambiado de tipo
+            listing = new Listing(lastModified, delegate.getFiles(dir, useFileHiding));
+            listings.put(key, listing);
+        }
+        return listing.files.clone(); // Copia para que el llamador no modifique la caché
+    }
+
+    @Override
+    public Boolean isTraversable(File f) {
+        if (f == null) {
+            return Boolean.FALSE;
+        }
+        Boolean cached;
+        synchronized (traversable) {
+            cached = traversable.get(f);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        Boolean result = delegate.isTraversable(f); // Fuera del bloqueo: en red puede tardar
+        synchronized (traversable) {
+            traversable.put(f, result);
+        }
+        return result;
+    }
+
+    // Los demás métodos se delegan en la vista real (getChooserShortcutPanelFiles es final y no se puede)
+
+    @Override
+    public File createNewFolder(File containingDir) throws IOException {
+        File folder = delegate.createNewFolder(containingDir);
+        invalidate(containingDir);
+        return folder;
+    }
+
+    @Override
+    public boolean isRoot(File f) {
+        return delegate.isRoot(f);
+    }
+
+    @Override
+    public String getSystemDisplayName(File f) {
+        return delegate.getSystemDisplayName(f);
+    }
+
+    @Override
+    public String getSystemTypeDescription(File f) {
+        return delegate.getSystemTypeDescription(f);
+    }
+
+    @Override
+    public Icon getSystemIcon(File f) {
+        return delegate.getSystemIcon(f);
+    }
+
+    @Override
+    public Icon getSystemIcon(File f, int width, int height) {
+        return delegate.getSystemIcon(f, width, height);
+    }
+
+    @Override
+    public boolean isLink(File file) {
+        return delegate.isLink(file);
+    }
+
+    @Override
+    public File getLinkLocation(File file) throws FileNotFoundException {
+        return delegate.getLinkLocation(file);
+    }
+
+    @Override
+    public File[] getChooserComboBoxFiles() {
+        return delegate.getChooserComboBoxFiles();
+    }
+
+    @Override
+    public boolean isParent(File folder, File file) {
+        return delegate.isParent(folder, file);
+    }
+
+    @Override
+    public File getChild(File parent, String fileName) {
+        return delegate.getChild(parent, fileName);
+    }
+
+    @Override
+    public boolean isFileSystem(File f) {
+        return delegate.isFileSystem(f);
+    }
+
+    @Override
+    public boolean isHiddenFile(File f) {
+        return delegate.isHiddenFile(f);
+    }
+
+    @Override
+    public boolean isFileSystemRoot(File dir) {
+        return delegate.isFileSystemRoot(dir);
+    }
+
+    @Override
+    public boolean isDrive(File dir) {
+        return delegate.isDrive(dir);
+    }
+
+    @Override
+    public boolean isFloppyDrive(File dir) {
+        return delegate.isFloppyDrive(dir);
+    }
+
+    @Override
+    public boolean isComputerNode(File dir) {
+        return delegate.isComputerNode(dir);
+    }
+
+    @Override
+    public File[] getRoots() {
+        return delegate.getRoots();
+    }
+
+    @Override
+    public File getHomeDirectory() {
+        return delegate.getHomeDirectory();
+    }
+
+    @Override
+    public File getDefaultDirectory() {
+        return delegate.getDefaultDirectory();
+    }
+
+    @Override
+    public File createFileObject(File dir, String filename) {
+        return delegate.createFileObject(dir, filename);
+    }
+
+    @Override
+    public File createFileObject(String path) {
+        return delegate.createFileObject(path);
+    }
+
+    @Override
+    public File getParentDirectory(File dir) {
+        return delegate.getParentDirectory(dir);
+    }
+
+    private void forget(Listing listing) {
+        if (listing != null) {
+            synchronized (traversable) {
+                for (File file : listing.files) {
+                    traversable.remove(file);
+                }
+            }
+        }
+    }
+
+    private static String key(File dir, boolean useFileHiding) {
+        return (useFileHiding ? "h:" : "a:") + dir.getAbsolutePath();
+    }
+}
@@ -0,0 +1,468 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de archivos y streams
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para los manifiestos
+import java.nio.file.*; // Importa Path y Files para manejar el repositorio
+import java.security.DigestInputStream; // Importa DigestInputStream para verificar los fragmentos al restaurar
+import java.security.MessageDigest; // Importa MessageDigest para identificar cada fragmento
+import java.security.NoSuchAlgorithmException; // Importa la excepción de algoritmo no disponible
+import java.text.SimpleDateFormat; // Importa SimpleDateFormat para nombrar los manifiestos
+import java.util.*; // Importa colecciones para manifiestos y fragmentos
+import java.util.zip.*; // Importa clases para comprimir cada fragmento
+
+/**
+ * Repositorio de copias de seguridad con deduplicación por fragmentos.
+ * Cada archivo se divide en fragmentos de tamaño variable cuyos límites los decide un hash
+ * rodante sobre el contenido (estilo FastCDC), de modo que insertar o borrar bytes solo cambia
+ * los fragmentos cercanos. Cada fragmento distinto se comprime y se guarda una sola vez con su
+ * SHA-256 como nombre, y cada copia escribe solo un manifiesto pequeño y los fragmentos nuevos.
+ * Los archivos cuyo tamaño y fecha no cambiaron desde la copia anterior ni siquiera se leen.
+ *
+ * Estructura: REPO/chunks/ab/abcdef... (fragmentos) y REPO/manifests/FECHA.manifest.
+ */
+public class ChunkStore {
+    private static final int MIN_CHUNK = 2 * 1024; // Tamaño mínimo de un fragmento
+    private static final int MAX_CHUNK = 64 * 1024; // Tamaño máximo de un fragmento
+    private static final long BOUNDARY_MASK = ((1L << 13) - 1) << 51; // 13 bits altos: fragmentos de unos 8 KB de media
+    private static final long[] GEAR = createGearTable(); // Valores aleatorios fijos del hash rodante
+    private static final String MANIFEST_HEADER = "CHUNKSTORE-MANIFEST 1";
+    private static final int MAX_READ_ATTEMPTS = 3; // Lecturas de un archivo que cambia mientras se copia
+
+    private final Path repository; // Carpeta raíz del repositorio
+    private final Path chunksDir; // Carpeta de los fragmentos
+    private final Path manifestsDir; // Carpeta de los manifiestos
+
+    /**
+     * Resultado de una copia de seguridad.
+     */
+    public static final class BackupResult {
+        private final Path manifest;
+        private final long totalBytes;
+        private final long newBytes;
+        private final int newChunks;
+        private final int reusedChunks;
+
+        BackupResult(Path manifest, long totalBytes, long newBytes, int newChunks, int reusedChunks) {
+            this.manifest = manifest;
+            this.totalBytes = totalBytes;
+            this.newBytes = newBytes;
+            this.newChunks = newChunks;
+            this.reusedChunks = reusedChunks;
+        }
+
+        public Path getManifest() {
+            return manifest;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getNewBytes() {
+            return newBytes;
+        }
+
+        public int getNewChunks() {
+            return newChunks;
+        }
+
+        public int getReusedChunks() {
+            return reusedChunks;
+        }
+    }
+
+    // Un archivo dentro de un manifiesto
+    private static final class FileRecord {
+        private final String name; // Nombre con el que se restaura
+        private final String path; // Ruta original, para reconocer el archivo en la siguiente copia
+        private long size; // Bytes leídos del archivo, se fija al terminar de leerlo
+        private final long lastModified;
+        private final List<String> chunks = new ArrayList<>(); // Hash de cada fragmento, en orden
+        private final List<Integer> lengths = new ArrayList<>(); // Longitud original de cada fragmento
+
+        FileRecord(String name, String path, long size, long lastModified) {
+            this.name = name;
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        // Copia del registro con otro nombre de restauración y los mismos fragmentos
+        FileRecord renamed(String newName) {
+            FileRecord copy = new FileRecord(newName, path, size, lastModified);
+            copy.chunks.addAll(chunks);
+            copy.lengths.addAll(lengths);
+            return copy;
+        }
+    }
+
+    /**
+     * Abre (o crea) un repositorio.
+     * @param repository Carpeta raíz del repositorio
+     * @throws IOException Si no se pueden crear las carpetas
+     */
+    public ChunkStore(Path repository) throws IOException {
+        this.repository = repository;
+        this.chunksDir = Files.createDirectories(repository.resolve("chunks"));
+        this.manifestsDir = Files.createDirectories(repository.resolve("manifests"));
+    }
+
+    /**
+     * @return Carpeta raíz del repositorio
+     */
+    public Path getRepository() {
+        return repository;
+    }
+
+    /**
+     * Hace una copia de seguridad de los archivos indicados.
+     * @param files Archivos a copiar
+     * @param listener Listener de progreso (puede ser null)
+     * @return Resultado con el manifiesto escrito y las estadísticas
+     * @throws IOException Si ocurre un error de lectura o escritura
+     */
+    public BackupResult backup(List<File> files, FileCompressor.CompressionListener listener) throws IOException {
+        Map<String, FileRecord> previous = latestManifest(); // Copia anterior, indexada por ruta
+        List<FileRecord> records = new ArrayList<>(files.size());
+        long totalBytes = 0;
+        long newBytes = 0;
+        int newChunks = 0;
+        int reusedChunks = 0;
+        Set<String> usedNames = new HashSet<>(); // Nombres de restauración ya asignados en esta copia
+
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            try {
+                String path = file.getCanonicalPath();
+                String name = uniqueName(file.getName(), usedNames); // Dos archivos con el mismo nombre no se pisan al restaurar
+                FileRecord old = previous.get(path);
+                if (old != null && old.size == file.length() && old.lastModified == file.lastModified()
+                        && allChunksPresent(old)) {
+                    // Sin cambios: se reutiliza la lista de fragmentos sin leer el archivo
+                    records.add(old.name.equals(name) ? old : old.renamed(name));
+                    reusedChunks += old.chunks.size();
+                } else {
+                    // La fecha se toma antes de leer: si cambia durante la lectura se vuelve a leer, y si
+                    // sigue cambiando se guarda la fecha anterior para que la siguiente copia lo relea
+                    long modified = file.lastModified();
+                    FileRecord record;
+                    long[] stats;
+                    for (int attempt = 1; ; attempt++) {
+                        record = new FileRecord(name, path, 0, modified);
+                        stats = chunkFile(file, record, i, listener);
+                        newBytes += stats[0];
+                        newChunks += (int) stats[1];
+                        long after = file.lastModified();
+                        if (after == modified || attempt == MAX_READ_ATTEMPTS) {
+                            break;
+                        }
+                        modified = after;
+                    }
+                    record.size = stats[2]; // Tamaño de lo que se leyó, igual a la suma de los fragmentos
+                    records.add(record);
+                    reusedChunks += record.chunks.size() - (int) stats[1];
+                }
+                totalBytes += records.get(records.size() - 1).size;
+                if (listener != null) {
+                    listener.onFileComplete(i);
+                }
+            } catch (IOException e) {
+                if (listener != null) {
+                    listener.onError(file, e);
+                }
+                throw e;
+            }
+        }
+
+        Path manifest = writeManifest(records);
+        if (listener != null) {
+            listener.onCompressionComplete();
+        }
+        return new BackupResult(manifest, totalBytes, newBytes, newChunks, reusedChunks);
+    }
+
+    /**
+     * Restaura los archivos de un manifiesto.
+     * @param manifest Manifiesto de la copia
+     * @param targetDir Carpeta donde se escriben los archivos
+     * @throws IOException Si falta un fragmento, un fragmento no coincide con su SHA-256 o dos entradas tienen el mismo nombre
+     */
+    public void restore(Path manifest, Path targetDir) throws IOException {
+        Files.createDirectories(targetDir);
+        Set<Path> restored = new HashSet<>(); // Archivos ya escritos en esta restauración
+        MessageDigest digest = sha256();
+        for (FileRecord record : readManifest(manifest)) {
+            Path output = targetDir.resolve(record.name).normalize();
+            if (!output.startsWith(targetDir.normalize())) { // Evita escribir fuera de la carpeta destino
+                throw new IOException("Entry outside target directory: " + record.name);
+            }
+            if (!restored.add(output)) { // Nunca se sobrescribe un archivo restaurado en la misma ejecución
+                throw new IOException("Duplicate entry in manifest: " + record.name);
+            }
+            long written = 0;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+                for (String hash : record.chunks) {
+                    // Se vuelve a calcular el SHA-256 al copiar: un fragmento dañado o cambiado no pasa
+                    digest.reset();
+                    try (InputStream in = new DigestInputStream(new InflaterInputStream(Files.newInputStream(chunkPath(hash))), digest)) {
+                        written += in.transferTo(out);
+                    }
+                    if (!toHex(digest.digest()).equals(hash)) {
+                        throw new IOException("Corrupt chunk " + hash + " in " + record.name);
+                    }
+                }
+                if (written != record.size) {
+                    throw new IOException("Restored size mismatch for " + record.name);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(output); // No se deja un archivo restaurado a medias
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Manifiestos del repositorio, del más antiguo al más reciente
+     * @throws IOException Si no se puede leer la carpeta de manifiestos
+     */
+    public List<Path> listManifests() throws IOException {
+        List<Path> manifests = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(manifestsDir, "*.manifest")) {
+            for (Path path : stream) {
+                manifests.add(path);
+            }
+        }
+        Collections.sort(manifests); // El nombre empieza por la fecha, así el orden es cronológico
+        return manifests;
+    }
+
+    // Divide un archivo en fragmentos y guarda los que no existen; devuelve {bytes nuevos, fragmentos nuevos, bytes leídos}
+    private long[] chunkFile(File file, FileRecord record, int fileIndex, FileCompressor.CompressionListener listener)
+            throws IOException {
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[MAX_CHUNK]; // Fragmento en construcción
+        byte[] buffer = new byte[64 * 1024]; // Buffer de lectura
+        int chunkLength = 0;
+        long hash = 0; // Hash rodante
+        long processed = 0;
+        long totalBytes = Math.max(1, file.length());
+        long newBytes = 0;
+        long newChunks = 0;
+
+        try (InputStream in = new FileInputStream(file)) {
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                for (int i = 0; i < bytesRead; i++) {
+                    byte b = buffer[i];
+                    chunk[chunkLength++] = b;
+                    hash = (hash << 1) + GEAR[b & 0xFF];
+                    if ((chunkLength >= MIN_CHUNK && (hash & BOUNDARY_MASK) == 0) || chunkLength == MAX_CHUNK) {
+                        if (storeChunk(chunk, chunkLength, digest, record)) {
+                            newBytes += chunkLength;
+                            newChunks++;
+                        }
+                        chunkLength = 0;
+                        hash = 0;
+                    }
+                }
+                processed += bytesRead;
+                if (listener != null) {
+                    listener.onProgressUpdate(fileIndex, (int) Math.min(100, processed * 100 / totalBytes)); // El archivo puede crecer mientras se lee
+                }
+            }
+        }
+        if (chunkLength > 0 && storeChunk(chunk, chunkLength, digest, record)) { // Último fragmento
+            newBytes += chunkLength;
+            newChunks++;
+        }
+        return new long[] {newBytes, newChunks, processed};
+    }
+
+    // Agrega el fragmento al registro y lo guarda si es nuevo; devuelve true si se escribió
+    private boolean storeChunk(byte[] chunk, int length, MessageDigest digest, FileRecord record) throws IOException {
+        digest.reset();
+        digest.update(chunk, 0, length);
+        String hash = toHex(digest.digest());
+        record.chunks.add(hash);
+        record.lengths.add(length);
+
+        Path path = chunkPath(hash);
+        if (Files.exists(path)) {
+            return false; // El fragmento ya está en el repositorio
+        }
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), hash, ".part");
+        try (OutputStream out = new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.write(chunk, 0, length);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    // Nombre libre para restaurar: el nombre original o "nombre (n).ext" si ya está usado
+    private static String uniqueName(String name, Set<String> usedNames) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 2; !usedNames.add(candidate); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private boolean allChunksPresent(FileRecord record) {
+        for (String hash : record.chunks) {
+            if (!Files.exists(chunkPath(hash))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path chunkPath(String hash) {
+        return chunksDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // Escribe el manifiesto: una línea por archivo seguida de una línea por fragmento.
+    // El nombre y la ruta se escapan porque pueden contener tabuladores o saltos de línea.
+    private Path writeManifest(List<FileRecord> records) throws IOException {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        Path manifest = manifestsDir.resolve(stamp + ".manifest");
+        Path temp = manifestsDir.resolve(stamp + ".manifest.part");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (FileRecord record : records) {
+                writer.write("file\t" + record.size + "\t" + record.lastModified + "\t" + escape(record.name) + "\t" + escape(record.path));
+                writer.newLine();
+                for (int i = 0; i < record.chunks.size(); i++) {
+                    writer.write("chunk\t" + record.chunks.get(i) + "\t" + record.lengths.get(i));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE);
+        return manifest;
+    }
+
+    private List<FileRecord> readManifest(Path manifest) throws IOException {
+        List<FileRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(reader.readLine())) {
+                throw new IOException("Not a chunk store manifest: " + manifest);
+            }
+            FileRecord current = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                try {
+                    if (parts[0].equals("file") && parts.length == 5) {
+                        current = new FileRecord(unescape(parts[3]), unescape(parts[4]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                        records.add(current);
+                        continue;
+                    }
+                    // El hash se usa como nombre de archivo: solo se aceptan 64 dígitos hexadecimales
+                    if (parts[0].equals("chunk") && parts.length == 3 && current != null && isHash(parts[1])
+                            && Integer.parseInt(parts[2]) > 0) {
+                        current.chunks.add(parts[1]);
+                        current.lengths.add(Integer.parseInt(parts[2]));
+                        continue;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Número o escape no válido: se informa abajo
+                }
+                throw new IOException("Invalid manifest line: " + line);
+            }
+        }
+        return records;
+    }
+
+    // Lee el manifiesto más reciente, indexado por ruta original
+    private Map<String, FileRecord> latestManifest() throws IOException {
+        List<Path> manifests = listManifests();
+        Map<String, FileRecord> byPath = new HashMap<>();
+        if (!manifests.isEmpty()) {
+            for (FileRecord record : readManifest(manifests.get(manifests.size() - 1))) {
+                byPath.put(record.path, record);
+            }
+        }
+        return byPath;
+    }
+
+    private static boolean isHash(String value) {
+        if (value.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Escapa la barra invertida, los tabuladores y los saltos de línea de un campo del manifiesto
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\') {
+                unescaped.append(c);
+                continue;
+            }
+            if (++i == value.length()) {
+                throw new IllegalArgumentException("Truncated escape");
+            }
+            switch (value.charAt(i)) {
+                case '\\': unescaped.append('\\'); break;
+                case 't': unescaped.append('\t'); break;
+                case 'n': unescaped.append('\n'); break;
+                case 'r': unescaped.append('\r'); break;
+                default: throw new IllegalArgumentException("Unknown escape");
+            }
+        }
+        return unescaped.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Todas las JVM deben incluir SHA-256
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static long[] createGearTable() {
+        Random random = new Random(0x5EEDL); // Semilla fija: los límites deben ser iguales en todas las copias
+        long[] table = new long[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,131 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para enviar la petición y leer los eventos
+import java.net.InetAddress; // Importa InetAddress para conectar con la interfaz local
+import java.net.InetSocketAddress; // Importa InetSocketAddress para la dirección TCP
+import java.net.SocketAddress; // Importa SocketAddress, común a TCP y a sockets Unix
+import java.net.UnixDomainSocketAddress; // Importa UnixDomainSocketAddress para la ruta del socket Unix
+import java.nio.channels.Channels; // Importa Channels para usar streams sobre el canal
+import java.nio.channels.SocketChannel; // Importa SocketChannel para conectar con el servicio
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para el protocolo
+import java.nio.file.Path; // Importa Path para la ruta del socket Unix
+import java.util.List; // Importa la interfaz List para la lista de archivos
+
+/**
+ * Cliente de CompressionService. Envía un trabajo y traduce los eventos que devuelve el servicio
+ * a las mismas llamadas de FileCompressor.CompressionListener que una compresión local.
+ */
+public class CompressionClient {
+    private final SocketAddress address; // Dirección del servicio
+    private final String token; // Token que se presenta al servicio, null si no hace falta
+
+    /**
+     * @param address Dirección del servicio (TCP o socket Unix)
+     * @param token Token del servicio TCP, o null para un socket Unix
+     */
+    public CompressionClient(SocketAddress address, String token) {
+        if (token != null && (token.indexOf('\n') >= 0 || token.indexOf('\r') >= 0)) {
+            throw new IllegalArgumentException("Token contains a line break");
+        }
+        this.address = address;
+        this.token = token;
+    }
+
+    /**
+     * @param port Puerto TCP del servicio en la interfaz local
+     * @param tokenFile Archivo donde el servicio guardó su token
+     * @return Cliente para ese puerto
+     * @throws IOException Si no se puede leer el token
+     */
+    public static CompressionClient tcp(int port, Path tokenFile) throws IOException {
+        return new CompressionClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+            CompressionService.readToken(tokenFile));
+    }
+
+    /**
+     * @param socketPath Ruta del socket Unix del servicio
+     * @return Cliente para ese socket
+     */
+    public static CompressionClient unix(Path socketPath) {
+        return new CompressionClient(UnixDomainSocketAddress.of(socketPath), null);
+    }
+
+    /**
+     * Envía un trabajo y espera a que termine.
+     * @param files Archivos a comprimir
+     * @param codec "zip" o "gzip"
+     * @param level Nivel de 0 a 9, o Deflater.DEFAULT_COMPRESSION
+     * @param output ZIP de salida, o carpeta de los .gz (null para escribirlos junto a cada archivo)
+     * @param listener Recibe los eventos del trabajo, puede ser null
+     * @return true si el servicio terminó el trabajo sin errores
+     * @throws IOException Si no se puede conectar o se pierde la conexión
+     */
+    public boolean submit(List<File> files, String codec, int level, String output,
+            FileCompressor.CompressionListener listener) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address);
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            out.write("JOB\n");
+            if (token != null) {
+                out.write("token " + token + "\n");
+            }
+            out.write("codec " + codec + "\n");
+            if (level >= 0) {
+                out.write("level " + level + "\n");
+            }
+            if (output != null) {
+                out.write("output " + line(new File(output).getAbsolutePath()) + "\n");
+            }
+            for (File file : files) {
+                out.write("file " + line(file.getAbsolutePath()) + "\n");
+            }
+            out.write("END\n");
+            out.flush();
+
+            String event;
+            while ((event = in.readLine()) != null) {
+                String[] parts = event.split(" ", 3);
+                switch (parts[0]) {
+                    case "PROGRESS":
+                        if (listener != null) {
+                            listener.onProgressUpdate(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                        }
+                        break;
+                    case "FILE":
+                        if (listener != null) {
+                            listener.onFileComplete(Integer.parseInt(parts[1]));
+                        }
+                        break;
+                    case "WORKERS":
+                        if (listener != null) {
+                            listener.onConcurrencyChange(Integer.parseInt(parts[1]), parts.length > 2 ? parts[2] : "");
+                        }
+                        break;
+                    case "ERROR":
+                        if (listener != null) {
+                            File file = parts[1].equals("-") ? null : files.get(Integer.parseInt(parts[1]));
+                            listener.onError(file, new IOException(parts.length > 2 ? parts[2] : "Unknown error"));
+                        }
+                        break;
+                    case "DONE":
+                        boolean ok = parts.length > 1 && parts[1].equals("OK");
+                        if (ok && listener != null) {
+                            listener.onCompressionComplete();
+                        }
+                        return ok;
+                    default:
+                        break; // ACCEPTED y eventos desconocidos no necesitan respuesta
+                }
+            }
+            throw new EOFException("Service closed the connection before the job finished");
+        }
+    }
+
+    // Las rutas van una por línea: no pueden contener saltos de línea
+    private static String line(String path) {
+        if (path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Path contains a line break: " + path);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,457 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para leer peticiones y escribir eventos
+import java.net.ConnectException; // Importa la excepción de un socket sin servicio que lo atienda
+import java.net.InetAddress; // Importa InetAddress para escuchar solo en la interfaz local
+import java.net.InetSocketAddress; // Importa InetSocketAddress para la dirección TCP
+import java.net.SocketAddress; // Importa SocketAddress, común a TCP y a sockets Unix
+import java.net.StandardProtocolFamily; // Importa StandardProtocolFamily para los sockets Unix
+import java.net.UnixDomainSocketAddress; // Importa UnixDomainSocketAddress para la ruta del socket Unix
+import java.nio.channels.Channels; // Importa Channels para usar streams sobre los canales
+import java.nio.channels.ClosedChannelException; // Importa la excepción que indica que el servidor se cerró
+import java.nio.channels.ServerSocketChannel; // Importa ServerSocketChannel para aceptar conexiones
+import java.nio.channels.SocketChannel; // Importa SocketChannel para cada conexión
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para el protocolo
+import java.nio.file.FileSystems; // Importa FileSystems para saber si hay permisos POSIX
+import java.nio.file.Files; // Importa Files para crear y borrar el socket Unix y el token
+import java.nio.file.Path; // Importa Path para la ruta del socket Unix
+import java.nio.file.LinkOption; // Importa LinkOption para no seguir enlaces al comprobar el socket
+import java.nio.file.NoSuchFileException; // Importa la excepción de un socket que no existe
+import java.nio.file.StandardCopyOption; // Importa opciones para colocar el token de forma atómica
+import java.nio.file.attribute.BasicFileAttributes; // Importa los atributos para saber si la ruta es un socket
+import java.nio.file.attribute.PosixFilePermission; // Importa PosixFilePermission para los permisos 0600
+import java.nio.file.attribute.PosixFilePermissions; // Importa PosixFilePermissions para crear los permisos
+import java.security.MessageDigest; // Importa MessageDigest para comparar el token en tiempo constante
+import java.security.SecureRandom; // Importa SecureRandom para generar el token
+import java.util.ArrayList; // Importa ArrayList para la lista de archivos de un trabajo
+import java.util.Arrays; // Importa Arrays para inicializar el último progreso enviado
+import java.util.HexFormat; // Importa HexFormat para escribir el token en hexadecimal
+import java.util.List; // Importa la interfaz List para la lista de archivos
+import java.util.Set; // Importa la interfaz Set para los permisos POSIX
+import java.util.concurrent.ConcurrentHashMap; // Importa ConcurrentHashMap para las conexiones que aún no enviaron su trabajo
+import java.util.concurrent.ExecutorService; // Importa ExecutorService para atender las conexiones
+import java.util.concurrent.Executors; // Importa Executors para crear el pool de conexiones
+import java.util.concurrent.RejectedExecutionException; // Importa la excepción de una conexión aceptada al cerrar
+import java.util.concurrent.TimeUnit; // Importa TimeUnit para esperar a los trabajos al cerrar
+import java.util.concurrent.Semaphore; // Importa Semaphore para repartir la CPU entre todos los trabajos
+import java.util.concurrent.atomic.AtomicInteger; // Importa AtomicInteger para numerar los trabajos
+
+/**
+ * Servicio local de compresión. Escucha en un socket Unix o en un puerto TCP de la interfaz local
+ * y ejecuta los trabajos que le envían otros procesos del mismo equipo. El servicio lee y escribe
+ * archivos con los permisos de quien lo arranca, así que solo ese usuario debe poder usarlo: el
+ * socket Unix se crea con permisos 0600 en una carpeta privada, y en TCP, donde cualquier usuario
+ * del equipo puede conectar, cada trabajo debe presentar el token que el servicio guarda en un
+ * archivo 0600. Todos los trabajos comparten los permisos de trabajo (uno por núcleo) y el
+ * presupuesto de memoria, así varios
+ * clientes a la vez nunca comprimen más archivos simultáneos que núcleos hay, y la JVM, el JIT
+ * y los bloques de memoria ya están preparados para cada trabajo nuevo.
+ *
+ * Protocolo de texto en UTF-8, una línea por mensaje y un trabajo por conexión. El cliente envía:
+ * <pre>
+ * JOB
+ * token VALOR           (obligatorio en TCP)
+ * codec zip|gzip        (zip: un solo ZIP en output; gzip: un .gz por archivo, en output o junto a cada uno)
+ * level 0-9             (opcional)
+ * output RUTA           (obligatorio para zip)
+ * dictionary true|false (opcional, solo zip)
+ * index true|false      (opcional, solo zip)
+ * file RUTA             (una línea por archivo)
+ * END
+ * </pre>
+ * y el servicio responde con ACCEPTED id n, y después PROGRESS índice porcentaje, FILE índice,
+ * WORKERS n motivo y ERROR índice|- mensaje a medida que ocurren, y al final DONE OK o DONE FAILED.
+ */
+public class CompressionService implements Closeable {
+    public static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("user.home"), ".compressor"); // Carpeta privada del servicio
+    public static final Path DEFAULT_SOCKET = DEFAULT_DIRECTORY.resolve("service.sock"); // Socket Unix por defecto
+    public static final Path DEFAULT_TOKEN_FILE = DEFAULT_DIRECTORY.resolve("service.token"); // Token del modo TCP por defecto
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private final ServerSocketChannel server; // Canal que acepta las conexiones
+    private final Path socketPath; // Ruta del socket Unix, null si es TCP
+    private final Path tokenFile; // Archivo con el token, null si es un socket Unix
+    private final byte[] token; // Token que deben presentar los trabajos, null si es un socket Unix
+    private final Semaphore workerPermits; // Permisos de trabajo compartidos por todos los trabajos
+    private final MemoryBudget memoryBudget; // Presupuesto de memoria compartido por todos los trabajos
+    private final ExecutorService connections; // Hilos que atienden las conexiones
+    private final Set<SocketChannel> waitingForJob = ConcurrentHashMap.newKeySet(); // Conexiones que aún no enviaron su trabajo
+    private final AtomicInteger nextJobId = new AtomicInteger(1); // Número del siguiente trabajo
+    private volatile boolean closed; // Indica si se ha detenido el servicio
+
+    private CompressionService(ServerSocketChannel server, Path socketPath, Path tokenFile, String token) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.server = server;
+        this.socketPath = socketPath;
+        this.tokenFile = tokenFile;
+        this.token = token != null ? token.getBytes(StandardCharsets.UTF_8) : null;
+        this.workerPermits = new Semaphore(cores, true); // Justo: los trabajos se turnan en orden de llegada
+        this.memoryBudget = new MemoryBudget(FileCompressor.DEFAULT_MEMORY_BUDGET);
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "compression-service-job");
+            thread.setDaemon(true); // No impide que la aplicación termine
+            return thread;
+        });
+    }
+
+    /**
+     * Abre el servicio en un puerto TCP de la interfaz local (127.0.0.1). Genera un token
+     * aleatorio y lo guarda en tokenFile con permisos 0600; los trabajos sin ese token se
+     * rechazan. El archivo se borra al cerrar el servicio.
+     * @param port Puerto, o 0 para elegir uno libre
+     * @param tokenFile Archivo donde se guarda el token, que lee CompressionClient.tcp
+     * @return Servicio listo para run()
+     * @throws IOException Si no se puede abrir el puerto o escribir el token
+     */
+    public static CompressionService openTcp(int port, Path tokenFile) throws IOException {
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        String token = HexFormat.of().formatHex(random);
+        writePrivate(tokenFile, token);
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            server.close();
+            Files.deleteIfExists(tokenFile);
+            throw e;
+        }
+        return new CompressionService(server, null, tokenFile, token);
+    }
+
+    /**
+     * Abre el servicio en un socket Unix con permisos 0600. El socket debe estar en una carpeta
+     * privada (0700 y del mismo usuario), que se crea si no existe: así nadie más puede conectar
+     * entre la creación del socket y el cambio de sus permisos. Si la ruta ya existe y es un
+     * socket sin servicio se reemplaza; si otro servicio responde en ella, no se abre.
+     * @param socketPath Ruta del socket
+     * @return Servicio listo para run()
+     * @throws IOException Si la carpeta no es privada, ya hay un servicio o no se puede crear el socket
+     */
+    public static CompressionService openUnix(Path socketPath) throws IOException {
+        Path dir = socketPath.toAbsolutePath().getParent();
+        createPrivateDirectory(dir);
+        checkPrivateDirectory(dir);
+        removeStaleSocket(socketPath);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            if (isPosix()) {
+                Files.setPosixFilePermissions(socketPath, OWNER_ONLY); // Solo el mismo usuario puede conectar
+            }
+        } catch (IOException e) {
+            server.close();
+            Files.deleteIfExists(socketPath);
+            throw e;
+        }
+        return new CompressionService(server, socketPath, null, null);
+    }
+
+    /**
+     * Lee el token que guardó openTcp.
+     * @param tokenFile Archivo del token
+     * @return El token
+     * @throws IOException Si no se puede leer el archivo
+     */
+    public static String readToken(Path tokenFile) throws IOException {
+        return Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * @return Dirección en la que escucha el servicio
+     * @throws IOException Si el servicio está cerrado
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Acepta conexiones hasta que se llame a close(). Cada conexión se atiende en su propio hilo.
+     * @throws IOException Si falla el canal del servidor
+     */
+    public void run() throws IOException {
+        while (!closed) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return; // Se cerró el servicio
+            }
+            try {
+                connections.execute(() -> handle(client));
+            } catch (RejectedExecutionException e) {
+                client.close(); // Se aceptó justo cuando se cerraba el servicio
+            }
+        }
+    }
+
+    /**
+     * Deja de aceptar conexiones, corta las que aún no enviaron su trabajo y espera a que
+     * terminen los trabajos en curso, para que un proceso que se detiene no deje ZIP a medias.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        connections.shutdown();
+        for (SocketChannel channel : waitingForJob) {
+            channel.close(); // Su hilo termina al fallar la lectura
+        }
+        try {
+            while (!connections.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Sigue esperando: un trabajo grande puede tardar más de un minuto
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (socketPath != null) {
+            Files.deleteIfExists(socketPath);
+        }
+        if (tokenFile != null) {
+            Files.deleteIfExists(tokenFile);
+        }
+    }
+
+    // Crea la carpeta con permisos 0700 si no existe
+    private static void createPrivateDirectory(Path dir) throws IOException {
+        if (dir == null || Files.isDirectory(dir)) {
+            return;
+        }
+        if (isPosix()) {
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+        } else {
+            Files.createDirectories(dir);
+        }
+    }
+
+    // Comprueba que solo el usuario actual puede entrar en la carpeta
+    private static void checkPrivateDirectory(Path dir) throws IOException {
+        if (dir == null || !isPosix()) {
+            return;
+        }
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(dir, LinkOption.NOFOLLOW_LINKS);
+        boolean ownerOnly = permissions.stream().allMatch(p -> p.name().startsWith("OWNER_"));
+        boolean owned = Files.getOwner(dir, LinkOption.NOFOLLOW_LINKS).equals(
+            dir.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name")));
+        if (!ownerOnly || !owned) {
+            throw new IOException("Socket directory must be private (owned by the current user, mode 0700): " + dir);
+        }
+    }
+
+    // Borra un socket que quedó de un servicio anterior; falla si la ruta no es un socket o alguien responde en ella
+    private static void removeStaleSocket(Path socketPath) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        if (!attributes.isOther()) {
+            throw new IOException("Not a socket: " + socketPath);
+        }
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+        } catch (ConnectException e) {
+            Files.deleteIfExists(socketPath); // Nadie escucha: es un socket antiguo
+            return;
+        }
+        throw new IOException("A service is already listening on " + socketPath);
+    }
+
+    // Escribe el archivo con permisos 0600 desde su creación y lo coloca con un movimiento atómico
+    private static void writePrivate(Path file, String content) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        createPrivateDirectory(dir);
+        Path temp = isPosix()
+            ? Files.createTempFile(dir, ".token", ".tmp", PosixFilePermissions.asFileAttribute(OWNER_ONLY))
+            : Files.createTempFile(dir, ".token", ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    // Atiende una conexión: lee el trabajo, lo ejecuta y envía los eventos
+    private void handle(SocketChannel client) {
+        try (SocketChannel channel = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+             EventWriter out = new EventWriter(new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8)))) {
+            FileCompressor compressor;
+            List<File> files = new ArrayList<>();
+            waitingForJob.add(channel);
+            try {
+                if (closed) {
+                    return; // close() ya recorrió las conexiones en espera
+                }
+                compressor = readJob(in, files);
+            } catch (IOException | IllegalArgumentException e) {
+                out.send("ERROR - " + e.getMessage());
+                out.send("DONE FAILED");
+                return;
+            } finally {
+                waitingForJob.remove(channel);
+            }
+
+            int jobId = nextJobId.getAndIncrement();
+            out.send("ACCEPTED " + jobId + " " + files.size());
+            int[] lastPercent = new int[files.size()]; // Solo se envía el progreso cuando cambia el porcentaje
+            Arrays.fill(lastPercent, -1);
+            boolean[] failed = {false};
+            compressor.setCompressionListener(new FileCompressor.CompressionListener() {
+                @Override
+                public void onProgressUpdate(int fileIndex, int progress) {
+                    synchronized (lastPercent) {
+                        if (lastPercent[fileIndex] == progress) {
+                            return;
+                        }
+                        lastPercent[fileIndex] = progress;
+                    }
+                    out.send("PROGRESS " + fileIndex + " " + progress);
+                }
+
+                @Override
+                public void onFileComplete(int fileIndex) {
+                    out.send("FILE " + fileIndex);
+                }
+
+                @Override
+                public void onCompressionComplete() {
+                }
+
+                @Override
+                public void onError(File file, Exception e) {
+                    synchronized (failed) {
+                        failed[0] = true;
+                    }
+                    int index = file != null ? files.indexOf(file) : -1;
+                    out.send("ERROR " + (index >= 0 ? String.valueOf(index) : "-") + " " + e.getMessage());
+                }
+
+                @Override
+                public void onConcurrencyChange(int activeWorkers, String reason) {
+                    out.send("WORKERS " + activeWorkers + " " + reason);
+                }
+            });
+
+            try {
+                boolean success = compressor.startCompression();
+                synchronized (failed) {
+                    out.send(success && !failed[0] ? "DONE OK" : "DONE FAILED");
+                }
+            } catch (RuntimeException e) {
+                out.send("ERROR - " + e); // El cliente recibe el fallo en lugar de un cierre sin explicación
+                out.send("DONE FAILED");
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión; no hay a quién avisar
+        }
+    }
+
+    // Lee la petición y prepara un compresor con los recursos compartidos del servicio
+    private FileCompressor readJob(BufferedReader in, List<File> files) throws IOException {
+        String line = in.readLine();
+        if (!"JOB".equals(line)) {
+            throw new IOException("Expected JOB but got " + line);
+        }
+        String codec = "zip";
+        String output = null;
+        String jobToken = null;
+        FileCompressor compressor = new FileCompressor();
+        while (!"END".equals(line = in.readLine())) {
+            if (line == null) {
+                throw new EOFException("Connection closed before END");
+            }
+            int space = line.indexOf(' ');
+            String key = space < 0 ? line : line.substring(0, space);
+            String value = space < 0 ? "" : line.substring(space + 1);
+            switch (key) {
+                case "token":
+                    jobToken = value;
+                    break;
+                case "codec":
+                    codec = value;
+                    break;
+                case "level":
+                    compressor.setCompressionLevel(Integer.parseInt(value));
+                    break;
+                case "output":
+                    output = value;
+                    break;
+                case "dictionary":
+                    compressor.setUseDictionary(Boolean.parseBoolean(value));
+                    break;
+                case "index":
+                    compressor.setWriteIndex(Boolean.parseBoolean(value));
+                    break;
+                case "file":
+                    files.add(new File(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown job field: " + key);
+            }
+        }
+
+        if (token != null && (jobToken == null
+                || !MessageDigest.isEqual(token, jobToken.getBytes(StandardCharsets.UTF_8)))) { // Comparación en tiempo constante
+            throw new IllegalArgumentException("Invalid or missing token");
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("Job has no files");
+        }
+        if (codec.equals("zip")) {
+            if (output == null) {
+                throw new IllegalArgumentException("Codec zip needs an output path");
+            }
+            compressor.setOutputMode(FileCompressor.OutputMode.ZIP_ARCHIVE);
+            compressor.setOutputPath(output);
+        } else if (codec.equals("gzip")) {
+            compressor.setOutputMode(FileCompressor.OutputMode.SEPARATE_GZIP);
+            compressor.setTargetDirectory(output != null ? new File(output) : null);
+        } else {
+            throw new IllegalArgumentException("Unknown codec: " + codec);
+        }
+        compressor.setFilesToCompress(files);
+        compressor.setThreadCount(Runtime.getRuntime().availableProcessors()); // Los permisos limitan el total entre trabajos
+        compressor.setWorkerPermits(workerPermits);
+        compressor.setSharedMemoryBudget(memoryBudget);
+        return compressor;
+    }
+
+    // Envía líneas de eventos desde varios hilos; si el cliente se desconecta deja de enviar
+    private static final class EventWriter implements Closeable {
+        private final Writer out;
+        private boolean broken; // Indica si el cliente ya no recibe eventos
+
+        EventWriter(Writer out) {
+            this.out = out;
+        }
+
+        synchronized void send(String line) {
+            if (broken) {
+                return;
+            }
+            try {
+                out.write(line.replace('\n', ' '));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                broken = true; // El trabajo sigue, pero ya no se envían eventos
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!broken) {
+                out.close();
+            }
+        }
+    }
+}
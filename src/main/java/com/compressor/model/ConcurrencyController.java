@@ -0,0 +1,187 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.util.concurrent.atomic.LongAdder; // Importa LongAdder para acumular contadores desde varios hilos
+
+/**
+ * Ajusta en vivo cuántos hilos de compresión trabajan a la vez.
+ * Cada medio segundo mide el rendimiento total (bytes leídos por segundo) y cuánto tiempo pasan
+ * los hilos esperando la entrada o el escritor compartido, y decide con una subida de colina:
+ * prueba un hilo más mientras el rendimiento mejora, deshace el paso cuando no mejora y reduce a
+ * tres cuartos cuando cae mucho o los hilos pasan la mayor parte del tiempo esperando el escritor.
+ * Los hilos con número mayor o igual al límite esperan en awaitTurn hasta que vuelven a hacer falta.
+ */
+public class ConcurrencyController {
+    private static final long SAMPLE_MILLIS = 500; // Intervalo entre decisiones
+    private static final double GAIN = 1.05; // Mejora mínima para considerar que un paso sirvió
+    private static final double DROP = 0.80; // Caída a partir de la cual se reduce a tres cuartos
+    private static final double WRITER_BOUND = 0.5; // Fracción de tiempo esperando el escritor que indica saturación
+    private static final int HOLD_SAMPLES = 6; // Muestras que se mantiene el límite tras deshacer un paso
+
+    /**
+     * Recibe cada cambio del número de hilos activos.
+     */
+    public interface DecisionListener {
+        void onConcurrencyChange(int activeWorkers, String reason);
+    }
+
+    private final int maxWorkers; // Hilos creados (límite superior)
+    private final DecisionListener listener; // Destino de las decisiones, puede ser null
+    private final LongAdder bytes = new LongAdder(); // Bytes leídos desde la última muestra
+    private final LongAdder inputWaitNanos = new LongAdder(); // Tiempo esperando la entrada desde la última muestra
+    private final LongAdder writerWaitNanos = new LongAdder(); // Tiempo esperando el escritor desde la última muestra
+    private final Thread sampler; // Hilo que toma las decisiones
+    private int limit; // Hilos que pueden trabajar ahora
+    private int lastStep; // Último cambio aplicado (+1, -1, -n o 0)
+    private double lastThroughput; // Rendimiento de la muestra anterior en bytes por segundo
+    private int hold; // Muestras que faltan para volver a probar
+    private int changes; // Número de decisiones que cambiaron el límite
+    private boolean finished; // Indica si el trabajo terminó
+
+    /**
+     * @param initialWorkers Hilos activos al empezar
+     * @param maxWorkers Hilos creados, el límite nunca lo supera
+     * @param listener Destino de las decisiones, puede ser null
+     */
+    public ConcurrencyController(int initialWorkers, int maxWorkers, DecisionListener listener) {
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException("Max workers must be at least 1");
+        }
+        this.maxWorkers = maxWorkers;
+        this.limit = Math.max(1, Math.min(initialWorkers, maxWorkers));
+        this.listener = listener;
+        this.sampler = new Thread(this::sampleLoop, "concurrency-controller");
+        this.sampler.setDaemon(true); // No impide que la aplicación termine
+    }
+
+    /**
+     * Empieza a medir y a tomar decisiones.
+     */
+    public void start() {
+        notifyListener(limit, "initial");
+        sampler.start();
+    }
+
+    /**
+     * Detiene el controlador y libera a los hilos que esperan turno.
+     */
+    public synchronized void finish() {
+        finished = true;
+        sampler.interrupt();
+        notifyAll();
+    }
+
+    /**
+     * Bloquea al hilo mientras su número no entre en el límite actual.
+     * @param worker Número del hilo, de 0 a maxWorkers - 1
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera
+     */
+    public synchronized void awaitTurn(int worker) throws InterruptedException {
+        while (worker >= limit && !finished) {
+            wait();
+        }
+    }
+
+    /**
+     * @param n Bytes de entrada procesados
+     */
+    public void addBytes(long n) {
+        bytes.add(n);
+    }
+
+    /**
+     * @param nanos Tiempo que un hilo esperó al siguiente archivo
+     */
+    public void addInputWait(long nanos) {
+        inputWaitNanos.add(nanos);
+    }
+
+    /**
+     * @param nanos Tiempo que un hilo esperó para escribir en la salida compartida
+     */
+    public void addWriterWait(long nanos) {
+        writerWaitNanos.add(nanos);
+    }
+
+    /**
+     * @return Hilos que pueden trabajar ahora
+     */
+    public synchronized int getActiveWorkers() {
+        return limit;
+    }
+
+    /**
+     * @return Número de decisiones que cambiaron el límite
+     */
+    public synchronized int getChanges() {
+        return changes;
+    }
+
+    // Bucle del hilo que toma las decisiones
+    private void sampleLoop() {
+        long last = System.nanoTime();
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MILLIS);
+            } catch (InterruptedException e) {
+                return; // El trabajo terminó
+            }
+            long now = System.nanoTime();
+            double seconds = (now - last) / 1e9;
+            last = now;
+            decide(bytes.sumThenReset() / seconds,
+                inputWaitNanos.sumThenReset() / 1e9 / seconds,
+                writerWaitNanos.sumThenReset() / 1e9 / seconds);
+        }
+    }
+
+    /**
+     * Aplica la política de subida de colina a una muestra.
+     * @param throughput Bytes por segundo
+     * @param inputWait Hilos esperando la entrada, de media
+     * @param writerWait Hilos esperando el escritor, de media
+     */
+    private void decide(double throughput, double inputWait, double writerWait) {
+        int newLimit;
+        String reason;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            newLimit = limit;
+            reason = null;
+            if (writerWait / limit > WRITER_BOUND && limit > 1) {
+                newLimit = Math.max(1, limit * 3 / 4); // Los hilos hacen cola en el escritor: sobran
+                reason = String.format("writer-bound (%.1f of %d waiting)", writerWait, limit);
+                hold = HOLD_SAMPLES;
+            } else if (lastThroughput > 0 && throughput < lastThroughput * DROP && limit > 1) {
+                newLimit = Math.max(1, limit * 3 / 4); // Caída fuerte: reducción multiplicativa
+                reason = String.format("throughput dropped to %.1f MB/s", throughput / (1024 * 1024));
+                hold = HOLD_SAMPLES;
+            } else if (lastStep > 0 && throughput < lastThroughput * GAIN) {
+                newLimit = limit - 1; // El último hilo añadido no mejoró: se deshace el paso
+                reason = String.format("no gain at %d workers (%.1f MB/s)", limit, throughput / (1024 * 1024));
+                hold = HOLD_SAMPLES;
+            } else if (hold > 0) {
+                hold--; // Se mantiene el límite estable un tiempo antes de volver a probar
+            } else if (limit < maxWorkers) {
+                newLimit = limit + 1; // Subida aditiva: prueba un hilo más
+                reason = String.format("probing up (%.1f MB/s, %.1f waiting for input)", throughput / (1024 * 1024), inputWait);
+            }
+            lastStep = newLimit - limit;
+            lastThroughput = throughput;
+            if (newLimit == limit) {
+                return;
+            }
+            limit = newLimit;
+            changes++;
+            notifyAll(); // Despierta a los hilos que vuelven a tener turno
+        }
+        notifyListener(newLimit, reason);
+    }
+
+    private void notifyListener(int workers, String reason) {
+        if (listener != null) {
+            listener.onConcurrencyChange(workers, reason);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para la lectura de archivos
+import java.util.ArrayList; // Importa ArrayList para guardar los segmentos elegidos
+import java.util.List; // Importa la interfaz List para manejar listas de archivos
+
+/**
+ * Entrena un diccionario compartido a partir de una muestra de los archivos a comprimir.
+ * El diccionario se usa con Deflater.setDictionary para que cada archivo pequeño no
+ * empiece con la ventana vacía.
+ */
+public class DictionaryTrainer {
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024; // DEFLATE solo puede referenciar los últimos 32 KB
+    private static final int MAX_SAMPLE_FILES = 256; // Número máximo de archivos usados como muestra
+    private static final int MAX_BYTES_PER_SAMPLE = 16 * 1024; // Bytes leídos como máximo de cada archivo
+    private static final int MIN_TOTAL_SAMPLE = 1024; // Por debajo de esta cantidad no vale la pena entrenar
+    private static final int DMER_SIZE = 8; // Longitud de las subcadenas que se cuentan
+    private static final int SEGMENT_SIZE = 64; // Longitud de cada segmento copiado al diccionario
+    private static final int HASH_BITS = 20; // Tamaño de la tabla de frecuencias (2^20 posiciones)
+
+    private DictionaryTrainer() {} // Clase de utilidades, no se instancia
+
+    /**
+     * Entrena un diccionario con los archivos indicados.
+     * Cuenta en cuántos archivos aparece cada subcadena de 8 bytes y copia al diccionario
+     * los segmentos que concentran las subcadenas más repetidas.
+     * @param files Archivos de los que se toma la muestra
+     * @return El diccionario entrenado, o un array vacío si la muestra no es suficiente
+     * @throws IOException Si ocurre un error leyendo la muestra
+     */
+    public static byte[] train(List<File> files) throws IOException {
+        List<byte[]> samples = readSamples(files);
+        if (samples.size() < 2) {
+            return new byte[0]; // Con un solo archivo no hay nada que compartir
+        }
+
+        // Concatena las muestras y recuerda dónde empieza cada una
+        int total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        if (total < MIN_TOTAL_SAMPLE) {
+            return new byte[0];
+        }
+        byte[] data = new byte[total];
+        int[] sampleOf = new int[total]; // Índice de la muestra a la que pertenece cada byte
+        int pos = 0;
+        for (int s = 0; s < samples.size(); s++) {
+            byte[] sample = samples.get(s);
+            System.arraycopy(sample, 0, data, pos, sample.length);
+            for (int i = 0; i < sample.length; i++) {
+                sampleOf[pos + i] = s;
+            }
+            pos += sample.length;
+        }
+
+        // Cuenta en cuántas muestras distintas aparece cada subcadena (con colisiones aceptables)
+        int[] frequency = new int[1 << HASH_BITS];
+        int[] lastSample = new int[1 << HASH_BITS];
+        for (int i = 0; i + DMER_SIZE <= total; i++) {
+            if (sampleOf[i] != sampleOf[i + DMER_SIZE - 1]) {
+                continue; // La subcadena cruza el límite entre dos muestras
+            }
+            int h = hash(data, i);
+            if (lastSample[h] != sampleOf[i] + 1) {
+                lastSample[h] = sampleOf[i] + 1;
+                frequency[h]++;
+            }
+        }
+
+        // Divide los datos en épocas y elige el mejor segmento de cada una
+        int maxSegments = MAX_DICTIONARY_SIZE / SEGMENT_SIZE;
+        int epochSize = Math.max(SEGMENT_SIZE, total / maxSegments);
+        List<int[]> chosen = new ArrayList<>(); // Cada elemento: {inicio, puntuación}
+        for (int epochStart = 0; epochStart + SEGMENT_SIZE <= total && chosen.size() < maxSegments; epochStart += epochSize) {
+            int epochEnd = Math.min(total, epochStart + epochSize);
+            int[] best = bestSegment(data, sampleOf, frequency, epochStart, epochEnd);
+            if (best != null) {
+                chosen.add(best);
+                // Las subcadenas ya incluidas no vuelven a puntuar en otras épocas
+                for (int i = best[0]; i + DMER_SIZE <= best[0] + SEGMENT_SIZE; i++) {
+                    frequency[hash(data, i)] = 0;
+                }
+            }
+        }
+        if (chosen.isEmpty()) {
+            return new byte[0];
+        }
+
+        // Los segmentos con mayor puntuación van al final, donde las distancias son más cortas
+        chosen.sort((a, b) -> Integer.compare(a[1], b[1]));
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(chosen.size() * SEGMENT_SIZE);
+        for (int[] segment : chosen) {
+            dictionary.write(data, segment[0], SEGMENT_SIZE);
+        }
+        return dictionary.toByteArray();
+    }
+
+    /**
+     * Lee el principio de cada archivo de la muestra.
+     * @param files Archivos candidatos
+     * @return Lista con los bytes leídos de cada archivo no vacío
+     * @throws IOException Si ocurre un error de lectura
+     */
+    private static List<byte[]> readSamples(List<File> files) throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        int step = Math.max(1, files.size() / MAX_SAMPLE_FILES); // Reparte la muestra por toda la lista
+        for (int i = 0; i < files.size() && samples.size() < MAX_SAMPLE_FILES; i += step) {
+            File file = files.get(i);
+            int length = (int) Math.min(file.length(), MAX_BYTES_PER_SAMPLE);
+            if (length < DMER_SIZE) {
+                continue; // Archivo demasiado pequeño para aportar subcadenas
+            }
+            try (InputStream in = new FileInputStream(file)) {
+                byte[] sample = in.readNBytes(length);
+                if (sample.length >= DMER_SIZE) {
+                    samples.add(sample);
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Busca dentro de una época el segmento cuya suma de frecuencias es mayor.
+     * Solo cuentan las subcadenas que aparecen en al menos dos muestras.
+     * @return {inicio, puntuación} del mejor segmento, o null si ninguno puntúa
+     */
+    private static int[] bestSegment(byte[] data, int[] sampleOf, int[] frequency, int start, int end) {
+        int[] best = null;
+        int window = SEGMENT_SIZE - DMER_SIZE + 1; // Subcadenas contenidas en un segmento
+        int score = 0;
+        for (int i = start; i + DMER_SIZE <= end; i++) {
+            score += usefulFrequency(data, sampleOf, frequency, i); // Entra la subcadena nueva
+            int first = i - window + 1; // Inicio del segmento que termina en esta subcadena
+            if (first > start) {
+                score -= usefulFrequency(data, sampleOf, frequency, first - 1); // Sale la más antigua
+            }
+            if (first >= start && sampleOf[first] == sampleOf[first + SEGMENT_SIZE - 1]
+                    && score > 0 && (best == null || score > best[1])) {
+                best = new int[] {first, score};
+            }
+        }
+        return best;
+    }
+
+    private static int usefulFrequency(byte[] data, int[] sampleOf, int[] frequency, int i) {
+        if (sampleOf[i] != sampleOf[i + DMER_SIZE - 1]) {
+            return 0;
+        }
+        int f = frequency[hash(data, i)];
+        return f >= 2 ? f : 0;
+    }
+
+    private static int hash(byte[] data, int i) {
+        long v = 0;
+        for (int k = 0; k < DMER_SIZE; k++) {
+            v = (v << 8) | (data[i + k] & 0xFF);
+        }
+        return (int) ((v * 0x9E3779B97F4A7C15L) >>> (64 - HASH_BITS));
+    }
+}
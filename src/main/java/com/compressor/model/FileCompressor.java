@@ -1,14 +1,59 @@
 package com.compressor.model; // Define el paquete donde se encuentra la clase
 
 import java.io.*; // Importa clases para manejo de archivos
+import java.nio.ByteBuffer; // Importa ByteBuffer para escribir el campo extra de las entradas
+import java.nio.ByteOrder; // Importa ByteOrder porque los campos del ZIP son little-endian
 import java.util.List; // Importa la interfaz List para manejar listas de archivos
+import java.nio.file.Files; // Importa Files para escribir y renombrar los .gz
+import java.nio.file.Path; // Importa Path para la ruta del índice
+import java.nio.file.FileAlreadyExistsException; // Importa la excepción de un .gz que ya existe al renombrar
+import java.nio.file.LinkOption; // Importa LinkOption para comprobar si el .gz ya existe
 import java.util.ArrayList; // Importa ArrayList para implementar la lista de archivos
+import java.util.Collections; // Importa Collections para la lista sincronizada de entradas del índice
+import java.util.Set; // Importa la interfaz Set para los destinos ya usados
+import java.util.ArrayDeque; // Importa ArrayDeque para los Deflater libres
+import java.util.Deque; // Importa la interfaz Deque para los Deflater libres
+import java.util.HashMap; // Importa HashMap para buscar por posición las entradas escritas como STORED
+import java.util.Map; // Importa la interfaz Map para las entradas escritas como STORED
+import java.util.concurrent.ConcurrentHashMap; // Importa ConcurrentHashMap para el conjunto de destinos compartido por los hilos
+import java.util.concurrent.Semaphore; // Importa Semaphore para los permisos de trabajo compartidos entre compresores
+import java.util.concurrent.atomic.AtomicBoolean; // Importa AtomicBoolean para marcar los trabajos con errores inesperados
 import java.util.zip.*; // Importa clases para la compresión de archivos en formato ZIP
 
 public class FileCompressor {
     private List<File> filesToCompress; // Lista de archivos que se van a comprimir
     private String outputPath; // Ruta donde se guardará el archivo ZIP resultante
     private CompressionListener listener; // Listener para manejar eventos durante la compresión
+    private boolean useDictionary; // Indica si se entrena un diccionario compartido para todos los archivos
+    private int threadCount = 2 * Runtime.getRuntime().availableProcessors(); // Número máximo de hilos de compresión
+    private boolean adaptiveConcurrency = true; // Indica si el número de hilos activos se ajusta durante el trabajo
+    private ConcurrencyController concurrency; // Controlador del trabajo actual, recibe las mediciones de los hilos
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION; // Nivel de DEFLATE (0-9 o DEFAULT_COMPRESSION)
+    private Semaphore workerPermits; // Permisos compartidos con otros compresores, null si no se comparte la CPU
+    private long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET; // Memoria máxima para los buffers de compresión
+    private MemoryBudget memoryBudget; // Presupuesto compartido por los hilos, se crea al iniciar la compresión
+    private boolean writeIndex; // Indica si se escribe el índice de acceso directo junto al ZIP
+    private OutputMode outputMode = OutputMode.ZIP_ARCHIVE; // Formato de salida
+    private File targetDirectory; // Carpeta de salida de los .gz (null = junto a cada archivo)
+    private boolean readAhead = true; // Indica si se ordenan los archivos por localidad y se leen por adelantado
+    private CountingOutputStream zipCounter; // Cuenta los bytes escritos en el ZIP actual, para conocer las posiciones
+    private List<ArchiveIndex.Entry> indexEntries; // Entradas del ZIP actual para el índice
+    private Map<Long, ArchiveIndex.Entry> storedEntries; // Entradas escritas como STORED cuyas cabeceras se corrigen al final (se modifica con el ZIP bloqueado)
+
+    public static final String DICTIONARY_ENTRY = ".dictionary"; // Entrada del ZIP que guarda el diccionario compartido
+    public static final int DICTIONARY_EXTRA_ID = 0x4344; // Cabecera del campo extra que marca entradas con diccionario
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024; // Presupuesto de memoria por defecto (256 MB)
+    private static final long MAX_LEASE_BYTES = 16L * 1024 * 1024; // Memoria máxima que un hilo pide por archivo
+    private static final long MAX_BUFFERED_FILE = Integer.MAX_VALUE; // Archivos mayores se comprimen directamente en el ZIP
+    private static final long MAX_32BIT_SIZE = 0xFFFFFFFFL; // A partir de aquí ZipOutputStream usa ZIP64 y la cabecera no se puede corregir
+
+    /**
+     * Formato de salida de la compresión.
+     */
+    public enum OutputMode {
+        ZIP_ARCHIVE, // Un solo ZIP con todos los archivos
+        SEPARATE_GZIP // Un .gz independiente por archivo
+    }
 
     // Interfaz para definir eventos relacionados con la compresión
     public interface CompressionListener {
@@ -16,6 +61,7 @@ public class FileCompressor {
         void onFileComplete(int fileIndex); // Evento cuando un archivo ha sido comprimido completamente
         void onCompressionComplete(); // Evento cuando la compresión de todos los archivos ha finalizado
         void onError(File file, Exception e); // Evento cuando ocurre un error en la compresión
+        default void onConcurrencyChange(int activeWorkers, String reason) {} // Evento cuando cambia el número de hilos activos
     }
 
     public FileCompressor() {} // Constructor vacío
@@ -36,6 +82,132 @@ public class FileCompressor {
         this.outputPath = path;
     }
 
+    /**
+     * Define el formato de salida. En SEPARATE_GZIP cada archivo se comprime en paralelo a su
+     * propio .gz y no se usan la ruta de salida, el diccionario ni el índice. Un .gz que ya
+     * existe nunca se sobrescribe: el nuevo se llama nombre (n).gz.
+     * @param outputMode Formato de salida
+     */
+    public void setOutputMode(OutputMode outputMode) {
+        if (outputMode == null) {
+            throw new IllegalArgumentException("Output mode must not be null");
+        }
+        this.outputMode = outputMode;
+    }
+
+    /**
+     * Define la carpeta donde se escriben los .gz en el modo SEPARATE_GZIP.
+     * @param directory Carpeta de salida, o null para escribir cada .gz junto a su archivo
+     */
+    public void setTargetDirectory(File directory) {
+        this.targetDirectory = directory;
+    }
+
+    /**
+     * Activa el modo de diccionario compartido. Se entrena un diccionario con una muestra de
+     * los archivos, se guarda una sola vez en el ZIP y cada archivo se comprime con él.
+     * Las entradas resultantes usan el método propio ArchiveIndex.METHOD_DICTIONARY: solo se
+     * pueden leer con ArchiveExtractor o ArchiveIndex, y otras herramientas las rechazan.
+     * Reduce el tamaño con muchos archivos pequeños parecidos, pero es más lento: cada archivo
+     * vuelve a cargar el diccionario en el Deflater (unos 50 µs con 20 KB), lo que con miles de
+     * archivos de pocos cientos de bytes llega a duplicar el tiempo del modo normal.
+     * @param useDictionary true para usar el diccionario compartido
+     */
+    public void setUseDictionary(boolean useDictionary) {
+        this.useDictionary = useDictionary;
+    }
+
+    /**
+     * Activa la escritura de un índice de acceso directo (archivo.zip.idx) junto al ZIP.
+     * Con ArchiveIndex se puede extraer una sola entrada sin leer el directorio central.
+     * @param writeIndex true para escribir el índice
+     */
+    public void setWriteIndex(boolean writeIndex) {
+        this.writeIndex = writeIndex;
+    }
+
+    /**
+     * Activa el orden por localidad y la lectura anticipada de los archivos (activado por defecto).
+     * Los archivos se comprimen agrupados por carpeta y en orden de disco, y un hilo lee los
+     * siguientes mientras se comprimen los actuales. Los índices que recibe el listener siguen
+     * siendo los de la lista original.
+     * @param readAhead false para comprimir en el orden de la lista sin leer por adelantado
+     */
+    public void setReadAhead(boolean readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Define el número máximo de hilos que comprimen a la vez. Por defecto, dos por núcleo.
+     * Con la concurrencia adaptativa es el techo; sin ella, el número fijo de hilos.
+     * @param threadCount Número de hilos (al menos 1)
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Activa el ajuste automático del número de hilos activos (activado por defecto).
+     * Se empieza con un hilo por núcleo y ConcurrencyController sube o baja el número según el
+     * rendimiento medido y el tiempo que los hilos esperan la entrada o el escritor. Cada cambio
+     * se notifica con onConcurrencyChange.
+     * @param adaptive false para usar siempre el número de hilos de setThreadCount
+     */
+    public void setAdaptiveConcurrency(boolean adaptive) {
+        this.adaptiveConcurrency = adaptive;
+    }
+
+    /**
+     * Define el nivel de compresión de DEFLATE para todos los formatos de salida.
+     * @param level De 0 (sin compresión) a 9 (máxima), o Deflater.DEFAULT_COMPRESSION
+     */
+    public void setCompressionLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        this.compressionLevel = level;
+    }
+
+    /**
+     * Comparte los hilos de trabajo con otros compresores: cada hilo toma un permiso solo
+     * mientras comprime y lo devuelve antes de esperar al escritor del ZIP o al siguiente
+     * archivo, así varios trabajos a la vez nunca comprimen más archivos simultáneos que
+     * permisos haya y un hilo bloqueado no quita el turno a los demás trabajos.
+     * @param permits Permisos compartidos, o null para no limitar
+     */
+    public void setWorkerPermits(Semaphore permits) {
+        this.workerPermits = permits;
+    }
+
+    /**
+     * Usa un presupuesto de memoria compartido con otros compresores en lugar de uno propio.
+     * @param budget Presupuesto compartido
+     */
+    public void setSharedMemoryBudget(MemoryBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Memory budget must not be null");
+        }
+        this.memoryBudget = budget;
+        this.memoryBudgetBytes = budget.getBudgetBytes();
+    }
+
+    /**
+     * Define la memoria máxima que pueden ocupar los datos comprimidos pendientes de escribir
+     * y la lectura anticipada. Los hilos que superan su parte escriben el resto en archivos
+     * temporales, y los archivos nuevos esperan mientras el presupuesto está agotado. La
+     * lectura anticipada solo usa memoria libre y nunca más de la mitad del presupuesto.
+     * @param bytes Presupuesto en bytes
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudgetBytes = bytes;
+    }
+
     /**
      * Asigna un listener que manejará los eventos de la compresión.
      * @param listener Objeto que implementa CompressionListener
@@ -49,38 +221,52 @@ public class FileCompressor {
      * @return true si la compresión fue exitosa, false si hubo un problema
      */
     public boolean startCompression() {
-        if (filesToCompress == null || filesToCompress.isEmpty() || outputPath == null) {
-            return false; // No hay archivos que comprimir o no hay ruta de salida definida
+        if (filesToCompress == null || filesToCompress.isEmpty()) {
+            return false; // No hay archivos que comprimir
+        }
+        if (memoryBudget == null || memoryBudget.getBudgetBytes() != memoryBudgetBytes) {
+            memoryBudget = new MemoryBudget(memoryBudgetBytes); // Se reutiliza entre trabajos para conservar los bloques
+        }
+        if (outputMode == OutputMode.SEPARATE_GZIP) {
+            return compressSeparately();
+        }
+        if (outputPath == null) {
+            return false; // No hay ruta de salida definida
         }
 
-        List<Thread> threads = new ArrayList<>(); // Lista para manejar los hilos de compresión
+        try (InputPrefetcher prefetcher = createPrefetcher(); // Entrega los archivos a los hilos
+             FileOutputStream fos = new FileOutputStream(outputPath); // Archivo ZIP de salida
+             CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(fos));
+             ZipOutputStream zos = new ZipOutputStream(counter);
+             DeflaterPool deflaters = new DeflaterPool(compressionLevel)) { // Como mucho un Deflater por hilo
+            zipCounter = counter;
+            zos.setLevel(compressionLevel);
+            indexEntries = Collections.synchronizedList(new ArrayList<>());
+            storedEntries = new HashMap<>();
 
-        try (FileOutputStream fos = new FileOutputStream(outputPath); // Archivo ZIP de salida
-             ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(fos))) {
-
-            // Itera sobre cada archivo y lo comprime en un hilo independiente
-            for (int i = 0; i < filesToCompress.size(); i++) {
-                final int index = i; // Índice del archivo actual
-                final File file = filesToCompress.get(i);
-
-                // Crea un nuevo hilo para comprimir el archivo
-                Thread thread = new Thread(() -> {
-                    try {
-                        compressSingleFile(file, zos, index);
-                    } catch (IOException e) {
-                        if (listener != null) {
-                            listener.onError(file, e); // Notifica si ocurre un error durante la compresión
-                        }
-                    }
-                });
+            // En modo diccionario se entrena y se guarda el diccionario antes que cualquier archivo
+            final byte[] dictionary = useDictionary ? DictionaryTrainer.train(filesToCompress) : new byte[0];
+            if (dictionary.length > 0) {
+                writeDictionaryEntry(zos, dictionary);
+            }
 
-                threads.add(thread); // Agrega el hilo a la lista
-                thread.start(); // Inicia el hilo
+            boolean completed = runWorkers(prefetcher, (file, source, fileIndex) -> {
+                if (dictionary.length == 0 && file.length() > MAX_BUFFERED_FILE) {
+                    compressSingleFile(file, source, zos, fileIndex); // Demasiado grande para comprimirlo aparte
+                } else {
+                    compressBuffered(file, source, zos, fileIndex, dictionary, deflaters);
+                }
+            });
+            if (!completed) {
+                return false; // El error ya se notificó al listener
             }
 
-            // Espera a que todos los hilos terminen
-            for (Thread thread : threads) {
-                thread.join(); // Espera a que el hilo termine antes de continuar
+            // Escribe el directorio central para conocer el tamaño final y después el índice
+            zos.finish();
+            counter.flush();
+            ZipDirectory.rewriteHeaders(Path.of(outputPath), storedEntries);
+            if (writeIndex) {
+                ArchiveIndex.write(Path.of(outputPath), indexEntries, zipCounter.getCount());
             }
 
             // Notifica que la compresión ha finalizado completamente
@@ -89,7 +275,7 @@ public class FileCompressor {
             }
             return true;
 
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException | InterruptedException | RuntimeException e) {
             if (listener != null) {
                 listener.onError(null, e); // Notifica un error general si ocurre
             }
@@ -98,35 +284,399 @@ public class FileCompressor {
     }
 
     /**
-     * Comprime un solo archivo y lo agrega al ZIP.
+     * Comprime cada archivo por separado en su propio .gz. Cada hilo escribe en su propio
+     * archivo, así no hay ningún bloqueo compartido entre hilos.
+     * @return true si la compresión terminó, false si no se pudo crear el destino o se interrumpió
+     */
+    private boolean compressSeparately() {
+        Set<Path> usedTargets = ConcurrentHashMap.newKeySet(); // Destinos ya asignados en este trabajo
+        try (InputPrefetcher prefetcher = createPrefetcher()) {
+            if (targetDirectory != null) {
+                Files.createDirectories(targetDirectory.toPath());
+            }
+            if (!runWorkers(prefetcher, (file, source, fileIndex) -> compressToGzip(file, source, fileIndex, usedTargets))) {
+                return false; // El error ya se notificó al listener
+            }
+
+            // Notifica que la compresión ha finalizado completamente
+            if (listener != null) {
+                listener.onCompressionComplete();
+            }
+            return true;
+
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (listener != null) {
+                listener.onError(null, e); // Notifica un error general si ocurre
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Crea el lector de entrada con los archivos en orden de localidad si la lectura anticipada
+     * está activada, o en el orden de la lista si no.
+     */
+    private InputPrefetcher createPrefetcher() {
+        int[] order = new int[filesToCompress.size()]; // Orden en que se comprimen los archivos
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (readAhead) {
+            order = InputPrefetcher.localityOrder(filesToCompress);
+        }
+        return new InputPrefetcher(filesToCompress, order, memoryBudget); // La ventana cuenta dentro del presupuesto
+    }
+
+    /**
+     * Reparte los archivos entre un número fijo de hilos y espera a que terminen.
+     * Los errores de un archivo se notifican al listener y el hilo sigue con el siguiente.
+     * Un error inesperado (RuntimeException) también se notifica, pero hace fallar el trabajo.
+     * @param prefetcher Lector que entrega los archivos
+     * @param task Compresión de un archivo
+     * @return false si algún archivo falló con un error inesperado
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    private boolean runWorkers(InputPrefetcher prefetcher, FileTask task) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>(); // Lista para manejar los hilos de compresión
+        int workerCount = Math.min(threadCount, filesToCompress.size()); // Nunca más hilos que archivos
+        int initialWorkers = adaptiveConcurrency ? Runtime.getRuntime().availableProcessors() : workerCount;
+        ConcurrencyController controller = new ConcurrencyController(initialWorkers, workerCount, (workers, reason) -> {
+            if (listener != null) {
+                listener.onConcurrencyChange(workers, reason); // Notifica la decisión del controlador
+            }
+        });
+        concurrency = controller;
+        AtomicBoolean failed = new AtomicBoolean(); // Algún hilo recibió un error inesperado
+        AtomicBoolean inputFailed = new AtomicBoolean(); // El lector anticipado falló (se notifica una sola vez)
+
+        // Crea los hilos; cada uno toma el siguiente archivo pendiente cuando le toca trabajar
+        if (readAhead) {
+            prefetcher.start();
+        }
+        if (adaptiveConcurrency) {
+            controller.start();
+        }
+        for (int w = 0; w < workerCount; w++) {
+            final int worker = w;
+            Thread thread = new Thread(() -> {
+                InputPrefetcher.Prefetched input;
+                try {
+                    while ((input = nextInput(prefetcher, controller, worker)) != null) {
+                        File file = input.getFile();
+                        try (InputStream source = input.open()) { // Al cerrarlo se libera su espacio en la ventana
+                            task.compress(file, source, input.getIndex());
+                        } catch (IOException e) {
+                            if (listener != null) {
+                                listener.onError(file, e); // Notifica si ocurre un error durante la compresión
+                            }
+                        } catch (RuntimeException e) {
+                            failed.set(true); // El hilo sigue con los demás archivos, pero el trabajo falla
+                            if (listener != null) {
+                                listener.onError(file, e);
+                            }
+                        }
+                    }
+                } catch (IllegalStateException e) { // El lector anticipado se detuvo: no quedan archivos que tomar
+                    failed.set(true);
+                    if (inputFailed.compareAndSet(false, true) && listener != null) {
+                        listener.onError(null, e);
+                    }
+                }
+            });
+
+            threads.add(thread); // Agrega el hilo a la lista
+            thread.start(); // Inicia el hilo
+        }
+
+        // Espera a que todos los hilos terminen
+        try {
+            for (Thread thread : threads) {
+                thread.join(); // Espera a que el hilo termine antes de continuar
+            }
+        } finally {
+            controller.finish();
+        }
+        return !failed.get();
+    }
+
+    /**
+     * Espera el turno del hilo y toma el siguiente archivo del lector anticipado.
+     * @return El archivo, o null si no quedan o se interrumpió el hilo
+     * @throws IllegalStateException Si el lector anticipado se detuvo por un error
+     */
+    private InputPrefetcher.Prefetched nextInput(InputPrefetcher prefetcher, ConcurrencyController controller, int worker) {
+        try {
+            controller.awaitTurn(worker);
+            long waitStart = System.nanoTime();
+            InputPrefetcher.Prefetched input;
+            try {
+                input = prefetcher.next();
+            } catch (IllegalStateException e) {
+                controller.finish(); // Despierta a los hilos en espera para que terminen
+                throw e;
+            }
+            controller.addInputWait(System.nanoTime() - waitStart);
+            if (input == null) {
+                controller.finish(); // No quedan archivos: los hilos en espera pueden terminar
+            }
+            return input;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Comprime un solo archivo directamente en el ZIP, con el ZIP bloqueado durante toda la
+     * compresión. Solo se usa con archivos demasiado grandes para compressBuffered.
      * @param file Archivo a comprimir
+     * @param source Contenido del archivo
      * @param zos Stream de salida ZIP
      * @param fileIndex Índice del archivo en la lista
      * @throws IOException Si ocurre un error durante la compresión
      */
-    private void compressSingleFile(File file, ZipOutputStream zos, int fileIndex) throws IOException {
+    private void compressSingleFile(File file, InputStream source, ZipOutputStream zos, int fileIndex) throws IOException {
         byte[] buffer = new byte[8192]; // Buffer para lectura de archivos en bloques
         int bytesRead;
         long totalBytes = file.length(); // Tamaño total del archivo
         long processedBytes = 0; // Bytes ya procesados
 
+        long waitStart = System.nanoTime();
         synchronized (zos) { // Se sincroniza para evitar conflictos al escribir en el ZIP
-            ZipEntry zipEntry = new ZipEntry(file.getName()); // Crea una entrada ZIP para el archivo
-            zos.putNextEntry(zipEntry);
+            concurrency.addWriterWait(System.nanoTime() - waitStart);
+            acquireWorkerPermit(); // Solo se toma con el ZIP ya bloqueado: la espera del escritor no ocupa un permiso
+            try {
+                ZipEntry zipEntry = new ZipEntry(file.getName()); // Crea una entrada ZIP para el archivo
+                long headerOffset = zipCounter.getCount(); // Posición de la cabecera local, para el índice
+                zos.putNextEntry(zipEntry);
 
-            try (FileInputStream fis = new FileInputStream(file)) {
-                while ((bytesRead = fis.read(buffer)) != -1) { // Lee el archivo en bloques
+                while ((bytesRead = source.read(buffer)) != -1) { // Lee el archivo en bloques
                     zos.write(buffer, 0, bytesRead); // Escribe los datos en el ZIP
                     processedBytes += bytesRead; // Actualiza la cantidad de datos procesados
-                    int progress = (int) ((processedBytes * 100) / totalBytes); // Calcula el progreso
+                    concurrency.addBytes(bytesRead);
+                    int progress = totalBytes > 0 ? (int) ((processedBytes * 100) / totalBytes) : 100; // Calcula el progreso
+
+                    // Notifica el progreso de la compresión
+                    if (listener != null) {
+                        listener.onProgressUpdate(fileIndex, progress);
+                    }
+                }
+                zos.closeEntry(); // Cierra la entrada del archivo en el ZIP
+                indexEntries.add(new ArchiveIndex.Entry(zipEntry.getName(), headerOffset, zipEntry.getCompressedSize(),
+                    zipEntry.getSize(), zipEntry.getCrc(), ZipEntry.DEFLATED));
+
+                // Notifica que la compresión de este archivo ha finalizado
+                if (listener != null) {
+                    listener.onFileComplete(fileIndex);
+                }
+            } finally {
+                releaseWorkerPermit();
+            }
+        }
+    }
+
+    /**
+     * Comprime un archivo en su propio .gz, junto al original o en el directorio de destino.
+     * Se escribe primero en un archivo .part y se renombra al terminar, así nunca queda un
+     * .gz a medias con el nombre final.
+     * @param file Archivo a comprimir
+     * @param source Contenido del archivo
+     * @param fileIndex Índice del archivo en la lista
+     * @param usedTargets Destinos ya asignados, para no pisar la salida de otro archivo con el mismo nombre
+     * @throws IOException Si ocurre un error durante la compresión
+     */
+    private void compressToGzip(File file, InputStream source, int fileIndex, Set<Path> usedTargets) throws IOException {
+        byte[] buffer = new byte[8192]; // Buffer para lectura de archivos en bloques
+        int bytesRead;
+        long totalBytes = file.length(); // Tamaño total del archivo
+        long processedBytes = 0; // Bytes ya procesados
+
+        Path directory = (targetDirectory != null ? targetDirectory : file.getAbsoluteFile().getParentFile()).toPath();
+        Path target = gzipTarget(directory, file.getName(), usedTargets);
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+
+        acquireWorkerPermit();
+        try {
+            try (GZIPOutputStream gzip = new LevelGZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), compressionLevel)) {
+                while ((bytesRead = source.read(buffer)) != -1) { // Lee el archivo en bloques
+                    gzip.write(buffer, 0, bytesRead);
+                    processedBytes += bytesRead; // Actualiza la cantidad de datos procesados
+                    concurrency.addBytes(bytesRead);
+                    int progress = totalBytes > 0 ? (int) ((processedBytes * 100) / totalBytes) : 100; // Calcula el progreso
+
+                    // Notifica el progreso de la compresión
+                    if (listener != null) {
+                        listener.onProgressUpdate(fileIndex, progress);
+                    }
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        } finally {
+            releaseWorkerPermit();
+        }
+        while (true) {
+            try {
+                Files.move(temp, target); // Sin REPLACE_EXISTING: nunca se sobrescribe un .gz existente
+                break;
+            } catch (FileAlreadyExistsException e) {
+                target = gzipTarget(directory, file.getName(), usedTargets); // Otro proceso lo creó mientras tanto
+            }
+        }
+
+        // Notifica que la compresión de este archivo ha finalizado
+        if (listener != null) {
+            listener.onFileComplete(fileIndex);
+        }
+    }
+
+    /**
+     * Guarda el diccionario compartido como una entrada sin comprimir al principio del ZIP.
+     * @param zos Stream de salida ZIP
+     * @param dictionary Diccionario entrenado
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void writeDictionaryEntry(ZipOutputStream zos, byte[] dictionary) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(dictionary);
+        ZipEntry entry = new ZipEntry(DICTIONARY_ENTRY);
+        entry.setMethod(ZipEntry.STORED); // Las entradas STORED necesitan tamaño y CRC por adelantado
+        entry.setSize(dictionary.length);
+        entry.setCompressedSize(dictionary.length);
+        entry.setCrc(crc.getValue());
+        long headerOffset = zipCounter.getCount();
+        zos.putNextEntry(entry);
+        zos.write(dictionary);
+        zos.closeEntry();
+        indexEntries.add(new ArchiveIndex.Entry(DICTIONARY_ENTRY, headerOffset, dictionary.length,
+            dictionary.length, crc.getValue(), ZipEntry.STORED));
+    }
+
+    /**
+     * Comprime un archivo, con o sin el diccionario compartido, y lo agrega al ZIP.
+     * La compresión se hace fuera del bloqueo del ZIP, así varios hilos comprimen a la vez
+     * y solo la copia final se serializa. Los datos DEFLATE se guardan como entrada STORED y
+     * al terminar el ZIP se corrige su cabecera con el método real (DEFLATED o el método propio
+     * del diccionario), el CRC y el tamaño del archivo original. Las entradas con diccionario
+     * llevan además un campo extra con el tamaño y el CRC originales.
+     * Los datos comprimidos se guardan en memoria prestada por el presupuesto y, si no caben,
+     * en un archivo temporal.
+     * @param file Archivo a comprimir
+     * @param source Contenido del archivo
+     * @param zos Stream de salida ZIP
+     * @param fileIndex Índice del archivo en la lista
+     * @param dictionary Diccionario compartido, o vacío para DEFLATE normal
+     * @param deflaters Deflaters reutilizables del trabajo
+     * @throws IOException Si ocurre un error durante la compresión
+     */
+    private void compressBuffered(File file, InputStream source, ZipOutputStream zos, int fileIndex, byte[] dictionary,
+            DeflaterPool deflaters) throws IOException {
+        byte[] buffer = new byte[8192]; // Buffer para lectura de archivos en bloques
+        byte[] deflated = new byte[8192]; // Buffer para la salida del Deflater
+        int bytesRead;
+        long totalBytes = file.length(); // Tamaño total del archivo
+        long processedBytes = 0; // Bytes ya procesados
+        CRC32 originalCrc = new CRC32(); // CRC del contenido original, para verificar al extraer
+        CRC32 payloadCrc = new CRC32(); // CRC de los datos comprimidos, que es lo que guarda la entrada STORED
+
+        MemoryBudget.Lease lease;
+        try {
+            lease = memoryBudget.acquire(Math.min(totalBytes, MAX_LEASE_BYTES)); // Espera si no queda memoria
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for memory");
+        }
+
+        Deflater deflater = deflaters.take(); // Se reutiliza: crear uno por archivo cuesta más que comprimir un JSON pequeño
+        try (SpillableBuffer compressed = new SpillableBuffer(lease)) {
+            acquireWorkerPermit();
+            try {
+                if (dictionary.length > 0) {
+                    deflater.setDictionary(dictionary);
+                }
+                while ((bytesRead = source.read(buffer)) != -1) { // Lee el archivo en bloques
+                    originalCrc.update(buffer, 0, bytesRead);
+                    deflater.setInput(buffer, 0, bytesRead);
+                    while (!deflater.needsInput()) {
+                        int n = deflater.deflate(deflated);
+                        compressed.write(deflated, 0, n);
+                        payloadCrc.update(deflated, 0, n);
+                    }
+                    processedBytes += bytesRead; // Actualiza la cantidad de datos procesados
+                    concurrency.addBytes(bytesRead);
+                    int progress = totalBytes > 0 ? (int) ((processedBytes * 100) / totalBytes) : 100; // Calcula el progreso
 
                     // Notifica el progreso de la compresión
                     if (listener != null) {
                         listener.onProgressUpdate(fileIndex, progress);
                     }
                 }
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(deflated);
+                    compressed.write(deflated, 0, n);
+                    payloadCrc.update(deflated, 0, n);
+                }
+            } finally {
+                releaseWorkerPermit(); // La escritura en el ZIP solo espera al escritor, no necesita permiso
             }
-            zos.closeEntry(); // Cierra la entrada del archivo en el ZIP
+
+            if (processedBytes >= MAX_32BIT_SIZE || compressed.size() >= MAX_32BIT_SIZE) {
+                throw new IOException("File grew too large while it was compressed: " + file); // La cabecera no se podría corregir
+            }
+            int method = dictionary.length > 0 ? ArchiveIndex.METHOD_DICTIONARY : ZipEntry.DEFLATED;
+            writeBufferedEntry(file, zos, fileIndex, compressed, payloadCrc.getValue(), processedBytes,
+                originalCrc.getValue(), method);
+        } finally {
+            deflaters.give(deflater);
+        }
+    }
+
+    /**
+     * Copia en el ZIP una entrada ya comprimida, como STORED; su cabecera se corrige al final.
+     * @param file Archivo original
+     * @param zos Stream de salida ZIP
+     * @param fileIndex Índice del archivo en la lista
+     * @param compressed Datos DEFLATE del archivo
+     * @param payloadCrc CRC de los datos comprimidos
+     * @param originalSize Tamaño del archivo original
+     * @param originalCrc CRC del archivo original
+     * @param method ZipEntry.DEFLATED o ArchiveIndex.METHOD_DICTIONARY
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void writeBufferedEntry(File file, ZipOutputStream zos, int fileIndex, SpillableBuffer compressed,
+            long payloadCrc, long originalSize, long originalCrc, int method) throws IOException {
+        byte[] extra = null;
+        if (method == ArchiveIndex.METHOD_DICTIONARY) {
+            // Campo extra: cabecera, longitud, tamaño original (8 bytes) y CRC original (4 bytes)
+            extra = new byte[16];
+            ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) DICTIONARY_EXTRA_ID)
+                .putShort((short) 12)
+                .putLong(originalSize)
+                .putInt((int) originalCrc);
+        }
+
+        long waitStart = System.nanoTime();
+        synchronized (zos) { // Solo la escritura en el ZIP se hace en exclusión mutua
+            concurrency.addWriterWait(System.nanoTime() - waitStart);
+            ZipEntry zipEntry = new ZipEntry(file.getName());
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(compressed.size());
+            zipEntry.setCompressedSize(compressed.size());
+            zipEntry.setCrc(payloadCrc);
+            if (extra != null) {
+                zipEntry.setExtra(extra);
+            }
+            long headerOffset = zipCounter.getCount();
+            zos.putNextEntry(zipEntry);
+            compressed.writeTo(zos);
+            zos.closeEntry();
+            ArchiveIndex.Entry indexEntry = new ArchiveIndex.Entry(zipEntry.getName(), headerOffset, compressed.size(),
+                originalSize, originalCrc, method);
+            indexEntries.add(indexEntry);
+            storedEntries.put(headerOffset, indexEntry);
 
             // Notifica que la compresión de este archivo ha finalizado
             if (listener != null) {
@@ -134,4 +684,105 @@ public class FileCompressor {
             }
         }
     }
+
+    /**
+     * Elige el nombre del .gz: nombre.gz, o nombre (n).gz si ese destino ya lo usa otro archivo
+     * de este trabajo o ya existe en disco.
+     * @param directory Carpeta de destino
+     * @param name Nombre del archivo original
+     * @param usedTargets Destinos ya usados en este trabajo; se añade el elegido
+     * @return Ruta del .gz
+     */
+    private static Path gzipTarget(Path directory, String name, Set<Path> usedTargets) {
+        Path target = directory.resolve(name + ".gz");
+        for (int n = 2; Files.exists(target, LinkOption.NOFOLLOW_LINKS) || !usedTargets.add(target); n++) {
+            target = directory.resolve(name + " (" + n + ").gz");
+        }
+        return target;
+    }
+
+    // Toma un permiso compartido antes del trabajo de CPU; sin permisos compartidos no espera
+    private void acquireWorkerPermit() throws InterruptedIOException {
+        if (workerPermits == null) {
+            return;
+        }
+        try {
+            workerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a worker permit");
+        }
+    }
+
+    private void releaseWorkerPermit() {
+        if (workerPermits != null) {
+            workerPermits.release();
+        }
+    }
+
+    // Compresión de un archivo que ejecuta cada hilo
+    private interface FileTask {
+        void compress(File file, InputStream source, int fileIndex) throws IOException;
+    }
+
+    // GZIPOutputStream con nivel de compresión configurable
+    private static final class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+
+    // Deflaters reutilizables del modo diccionario; como mucho se crea uno por hilo
+    private static final class DeflaterPool implements Closeable {
+        private final int level; // Nivel de compresión de todos los Deflater del trabajo
+        private final Deque<Deflater> idle = new ArrayDeque<>(); // Deflaters libres
+
+        DeflaterPool(int level) {
+            this.level = level;
+        }
+
+        synchronized Deflater take() {
+            Deflater deflater = idle.poll();
+            return deflater != null ? deflater : new Deflater(level, true); // DEFLATE sin cabecera zlib
+        }
+
+        synchronized void give(Deflater deflater) {
+            deflater.reset(); // Queda listo para el siguiente archivo; setDictionary se vuelve a llamar
+            idle.push(deflater);
+        }
+
+        @Override
+        public synchronized void close() {
+            for (Deflater deflater : idle) {
+                deflater.end(); // Libera la memoria nativa del Deflater
+            }
+            idle.clear();
+        }
+    }
+
+    // Stream que cuenta los bytes que pasan por él
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count; // Bytes escritos hasta el momento
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
 }
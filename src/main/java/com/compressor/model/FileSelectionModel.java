@@ -1,9 +1,12 @@
 package com.compressor.model; // Define el paquete donde se encuentra la clase
 
+import java.awt.Component; // Importa Component para indicar la ventana padre de los diálogos
+import java.awt.event.HierarchyEvent; // Importa HierarchyEvent para detectar cuándo se muestra el diálogo
 import java.io.File; // Importa la clase File para representar archivos en el sistema
 import java.util.ArrayList; // Importa ArrayList para manejar una lista dinámica de archivos
 import java.util.List; // Importa la interfaz List para manejar listas genéricas
 import javax.swing.JFileChooser; // Importa JFileChooser para permitir la selección de archivos en una ventana emergente
+import javax.swing.SwingUtilities; // Importa SwingUtilities para crear los selectores en el hilo de la interfaz
 import javax.swing.filechooser.FileNameExtensionFilter; // Importa un filtro para limitar los tipos de archivo que se pueden seleccionar
 
 /**
@@ -12,6 +15,10 @@ import javax.swing.filechooser.FileNameExtensionFilter; // Importa un filtro par
 public class FileSelectionModel {
     private List<File> selectedFiles; // Lista donde se almacenan los archivos seleccionados por el usuario
     private File lastDirectory; // Último directorio que el usuario usó al seleccionar archivos
+    private final CachedFileSystemView fileSystemView; // Vista del sistema de archivos con caché de carpetas
+    private JFileChooser openChooser; // Selector para abrir archivos, se crea una vez y se reutiliza
+    private JFileChooser saveChooser; // Selector para guardar el ZIP, se crea una vez y se reutiliza
+    private long dialogRequestedAt; // Momento en que se pidió el último diálogo, para medir cuánto tarda en aparecer
 
     /**
      * Constructor que inicializa la lista de archivos seleccionados y el directorio inicial.
@@ -19,6 +26,25 @@ public class FileSelectionModel {
     public FileSelectionModel() {
         this.selectedFiles = new ArrayList<>(); // Crea una lista vacía para almacenar archivos seleccionados
         this.lastDirectory = new File(System.getProperty("user.home")); // Establece el directorio inicial como la carpeta del usuario
+        this.fileSystemView = new CachedFileSystemView(); // Las carpetas se leen una vez y se reutilizan entre diálogos
+    }
+
+    /**
+     * Prepara los selectores de archivos en segundo plano para que el primer diálogo abra rápido.
+     * Lee el último directorio en un hilo aparte y después crea los selectores en el hilo de la
+     * interfaz, cuando la ventana principal ya está visible.
+     */
+    public void prewarm() {
+        File dir = lastDirectory;
+        Thread thread = new Thread(() -> {
+            fileSystemView.prefetch(dir); // Lista la carpeta y el tipo de cada elemento fuera del hilo de la interfaz
+            SwingUtilities.invokeLater(() -> {
+                getOpenChooser();
+                getSaveChooser();
+            });
+        }, "file-chooser-prewarm");
+        thread.setDaemon(true); // No impide que la aplicación termine
+        thread.start();
     }
 
     /**
@@ -27,16 +53,10 @@ public class FileSelectionModel {
      * @return true si el usuario selecciona archivos, false si cancela la selección.
      */
     public boolean showFileSelectionDialog() {
-        JFileChooser fileChooser = new JFileChooser(); // Crea un selector de archivos
+        dialogRequestedAt = System.nanoTime();
+        JFileChooser fileChooser = getOpenChooser(); // Reutiliza el selector de archivos
         fileChooser.setCurrentDirectory(lastDirectory); // Establece el último directorio usado como directorio inicial
-        fileChooser.setMultiSelectionEnabled(true); // Permite la selección de múltiples archivos
-        fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY); // Restringe la selección solo a archivos, no carpetas
-
-        // Crea un filtro para que solo se puedan seleccionar ciertos tipos de archivos
-        FileNameExtensionFilter filter = new FileNameExtensionFilter(
-            "Archivos comunes (*.txt, *.pdf, *.jpg, *.png, etc.)", "txt", "pdf", "jpg", "png", "doc", "docx", "xls", "xlsx"
-        );
-        fileChooser.setFileFilter(filter); // Aplica el filtro al selector de archivos
+        fileChooser.setSelectedFiles(new File[0]); // Limpia la selección del diálogo anterior
 
         // Abre el cuadro de diálogo y espera la respuesta del usuario
         int result = fileChooser.showOpenDialog(null);
@@ -48,6 +68,62 @@ public class FileSelectionModel {
         return false; // Indica que el usuario canceló la selección
     }
 
+    /**
+     * Muestra un cuadro de diálogo para elegir dónde guardar el archivo ZIP.
+     *
+     * @param parent Ventana padre del diálogo
+     * @return El archivo elegido, o null si el usuario cancela
+     */
+    public File showSaveDialog(Component parent) {
+        dialogRequestedAt = System.nanoTime();
+        JFileChooser fileChooser = getSaveChooser(); // Reutiliza el selector de archivos
+        fileChooser.setSelectedFile(new File("compressed.zip")); // Establece un archivo por defecto para guardar
+        if (fileChooser.showSaveDialog(parent) == JFileChooser.APPROVE_OPTION) {
+            return fileChooser.getSelectedFile();
+        }
+        return null;
+    }
+
+    // Crea el selector para abrir archivos la primera vez que se necesita
+    private JFileChooser getOpenChooser() {
+        if (openChooser == null) {
+            long start = System.nanoTime();
+            openChooser = createChooser();
+            openChooser.setMultiSelectionEnabled(true); // Permite la selección de múltiples archivos
+            openChooser.setFileSelectionMode(JFileChooser.FILES_ONLY); // Restringe la selección solo a archivos, no carpetas
+
+            // Crea un filtro para que solo se puedan seleccionar ciertos tipos de archivos
+            FileNameExtensionFilter filter = new FileNameExtensionFilter(
+                "Archivos comunes (*.txt, *.pdf, *.jpg, *.png, etc.)", "txt", "pdf", "jpg", "png", "doc", "docx", "xls", "xlsx"
+            );
+            openChooser.setFileFilter(filter); // Aplica el filtro al selector de archivos
+            PerformanceLog.recordSince("open-chooser-created", start);
+        }
+        return openChooser;
+    }
+
+    // Crea el selector para guardar el ZIP la primera vez que se necesita
+    private JFileChooser getSaveChooser() {
+        if (saveChooser == null) {
+            long start = System.nanoTime();
+            saveChooser = createChooser();
+            saveChooser.setDialogTitle("Save ZIP File"); // Título del cuadro de diálogo
+            PerformanceLog.recordSince("save-chooser-created", start);
+        }
+        return saveChooser;
+    }
+
+    private JFileChooser createChooser() {
+        JFileChooser chooser = new JFileChooser(lastDirectory, fileSystemView);
+        // Mide el tiempo desde que se pide el diálogo hasta que se muestra
+        chooser.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && chooser.isShowing()) {
+                PerformanceLog.recordSince("time-to-dialog", dialogRequestedAt);
+            }
+        });
+        return chooser;
+    }
+
     /**
      * Agrega una lista de archivos a la lista interna, evitando duplicados.
      * 
@@ -0,0 +1,334 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de streams
+import java.nio.file.*; // Importa WatchService y las utilidades de archivos
+import java.nio.file.attribute.BasicFileAttributes; // Importa los atributos para leer tamaño y fecha
+import java.text.SimpleDateFormat; // Importa SimpleDateFormat para nombrar los lotes
+import java.util.*; // Importa colecciones para guardar los archivos pendientes
+import java.util.concurrent.CompletableFuture; // Importa CompletableFuture para los lotes en escritura
+import java.util.concurrent.ConcurrentHashMap; // Importa ConcurrentHashMap para el conjunto de lotes en escritura
+import java.util.concurrent.ConcurrentLinkedQueue; // Importa ConcurrentLinkedQueue para las carpetas por recorrer
+import java.util.concurrent.TimeUnit; // Importa TimeUnit para las esperas del WatchService
+import java.util.concurrent.atomic.AtomicInteger; // Importa AtomicInteger para numerar los lotes
+
+/**
+ * Modo servicio que vigila carpetas de entrada y archiva los archivos que van llegando.
+ * Los archivos se agrupan en lotes que se cierran cuando pasa la ventana de tiempo o cuando
+ * se alcanza el límite de bytes o de archivos, así una ráfaga de miles de archivos por segundo
+ * genera pocos ZIP grandes en lugar de uno por archivo. Cada lote se escribe como un ZIP nuevo
+ * con ArchiveBuilder, cuyo pool de hilos permanece activo entre lotes.
+ */
+public class FolderWatcher implements Closeable {
+    private static final long QUIET_PERIOD_MS = 500; // Archivos modificados más recientemente se dejan para el siguiente lote
+    private static final int MAX_FILES_PER_BATCH = 10000; // Límite de archivos por lote
+
+    private final Path outputDir; // Carpeta donde se escriben los ZIP de cada lote
+    private final long windowMillis; // Duración máxima de un lote abierto
+    private final long maxBatchBytes; // Tamaño que cierra el lote antes de que termine la ventana
+    private final WatchService watchService; // Servicio que notifica los cambios en las carpetas
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>(); // Carpeta asociada a cada registro
+    private final Map<Path, String> prefixes = new HashMap<>(); // Prefijo único de las entradas de cada carpeta
+    private final LinkedHashMap<Path, PendingFile> pending = new LinkedHashMap<>(); // Archivos pendientes, del visto hace más tiempo al más reciente
+    private long pendingBytes; // Suma de los tamaños pendientes, para no recalcularla en cada evento
+    private final Queue<Path> initialScans = new ConcurrentLinkedQueue<>(); // Carpetas recién registradas cuyo contenido falta por agregar
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet(); // Lotes que se están escribiendo
+    private final AtomicInteger batchCounter = new AtomicInteger(); // Número de lote, evita nombres repetidos
+    private BatchListener listener; // Listener para informar de cada lote escrito
+    private long batchOpenedAt; // Momento en que llegó el primer archivo del lote actual
+    private long lastScanTime; // Marca de los recorridos tras un desbordamiento: lo modificado antes ya se recibió
+    private final Map<Path, Long> archived = new HashMap<>(); // Archivo ya enviado a un lote -> fecha de modificación archivada
+    private volatile boolean running; // Indica si el bucle principal sigue activo
+
+    // Archivo pendiente: carpeta vigilada, tamaño y último evento recibido
+    private static final class PendingFile {
+        final Path dir;
+        final long size;
+        final long seenAt;
+
+        PendingFile(Path dir, long size, long seenAt) {
+            this.dir = dir;
+            this.size = size;
+            this.seenAt = seenAt;
+        }
+    }
+
+    // Interfaz para informar del resultado de cada lote
+    public interface BatchListener {
+        void onBatchWritten(Path archive, int fileCount, long totalBytes); // Evento cuando un lote se ha escrito
+        void onError(Exception e); // Evento cuando falla la escritura de un lote
+    }
+
+    /**
+     * Crea un vigilante que escribe sus lotes en la carpeta indicada.
+     * @param outputDir Carpeta de salida de los ZIP
+     * @param windowMillis Tiempo máximo que un lote permanece abierto
+     * @param maxBatchBytes Bytes acumulados que cierran el lote
+     * @throws IOException Si no se puede crear la carpeta de salida o el WatchService
+     */
+    public FolderWatcher(Path outputDir, long windowMillis, long maxBatchBytes) throws IOException {
+        if (windowMillis <= 0 || maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Window and batch size must be positive");
+        }
+        this.outputDir = Files.createDirectories(outputDir);
+        this.windowMillis = windowMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Asigna un listener que recibe el resultado de cada lote.
+     * @param listener Objeto que implementa BatchListener
+     */
+    public void setBatchListener(BatchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Empieza a vigilar una carpeta. Los archivos que ya contiene, incluidos los que llegaron
+     * mientras el servicio estaba detenido, se archivan en el primer lote.
+     * @param dir Carpeta de entrada
+     * @throws IOException Si la carpeta no se puede registrar
+     */
+    public void watch(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        synchronized (watchedDirs) {
+            watchedDirs.put(key, dir);
+            if (!prefixes.containsKey(dir)) {
+                prefixes.put(dir, uniquePrefix(dir));
+            }
+        }
+        initialScans.add(dir); // Se recorre desde el bucle principal, que es el dueño de los pendientes
+    }
+
+    // Nombre de la carpeta, con " (n)" si otra carpeta vigilada ya usa el mismo nombre
+    private String uniquePrefix(Path dir) {
+        Path name = dir.toAbsolutePath().getFileName();
+        String base = name != null ? name.toString() : "root";
+        String prefix = base;
+        for (int n = 2; prefixes.containsValue(prefix); n++) {
+            prefix = base + " (" + n + ")";
+        }
+        return prefix;
+    }
+
+    /**
+     * Bucle principal: recoge eventos y escribe los lotes. Bloquea hasta que se llama a close().
+     */
+    public void run() {
+        running = true;
+        lastScanTime = System.currentTimeMillis();
+        while (running) {
+            try {
+                for (Path dir; (dir = initialScans.poll()) != null; ) {
+                    scan(dir, Long.MIN_VALUE); // Contenido previo de una carpeta recién registrada
+                }
+                WatchKey key = pending.isEmpty()
+                    ? watchService.poll(windowMillis, TimeUnit.MILLISECONDS)
+                    : watchService.poll(Math.max(1, nextFlushAt() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    processEvents(key);
+                }
+                if (!pending.isEmpty() && System.currentTimeMillis() >= nextFlushAt()) {
+                    flush(); // Terminó la ventana del lote, o el lote está lleno y ya hay archivos listos
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                running = false;
+            }
+        }
+        if (!pending.isEmpty()) {
+            flush(); // Escribe lo que quede al detener el servicio
+        }
+        for (CompletableFuture<?> write : inFlight) { // Espera a que terminen los lotes en escritura
+            try {
+                write.join();
+            } catch (RuntimeException e) {
+                // El error ya se informó al listener
+            }
+        }
+    }
+
+    /**
+     * Detiene el bucle principal y libera el WatchService.
+     * @throws IOException Si ocurre un error al cerrar el WatchService
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        watchService.close();
+    }
+
+    // Agrega al lote los archivos de los eventos recibidos
+    private void processEvents(WatchKey key) {
+        Path dir;
+        synchronized (watchedDirs) {
+            dir = watchedDirs.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                rescan(dir); // Se perdieron eventos: se recorre la carpeta completa
+            } else {
+                addPending(dir.resolve((Path) event.context()), dir);
+            }
+        }
+        key.reset();
+    }
+
+    // Momento del próximo lote: al terminar la ventana o, si el lote ya está lleno, cuando el archivo
+    // visto hace más tiempo y el lote anterior queden a un periodo de espera. Así una ráfaga que supera
+    // el límite no recorre todos los pendientes en cada evento ni escribe un lote diminuto por evento.
+    private long nextFlushAt() {
+        long deadline = batchOpenedAt + windowMillis;
+        if (pending.size() >= MAX_FILES_PER_BATCH || pendingBytes >= maxBatchBytes) {
+            PendingFile oldest = pending.values().iterator().next();
+            deadline = Math.min(deadline, Math.max(oldest.seenAt, batchOpenedAt) + QUIET_PERIOD_MS);
+        }
+        return deadline;
+    }
+
+    // Se perdieron eventos: agrega los archivos modificados desde la marca que no se hayan archivado ya
+    private void rescan(Path dir) {
+        scan(dir, lastScanTime - QUIET_PERIOD_MS);
+    }
+
+    // Recorre la carpeta y agrega los archivos modificados desde el instante indicado
+    private void scan(Path dir, long since) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                if (modified >= since && !Long.valueOf(modified).equals(archived.get(file))) {
+                    addPending(file, dir);
+                }
+            }
+        } catch (IOException e) {
+            notifyError(e);
+        }
+    }
+
+    private void addPending(Path file, Path dir) {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            return; // Solo se archivan archivos normales
+        }
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            batchOpenedAt = now; // Se abre un lote nuevo
+        }
+        PendingFile previous = pending.remove(file); // Se vuelve a poner al final, con la hora de este evento
+        PendingFile current = new PendingFile(dir, file.toFile().length(), now);
+        pending.put(file, current);
+        pendingBytes += current.size - (previous != null ? previous.size : 0); // Un archivo modificado varias veces cuenta una sola vez
+    }
+
+    // Escribe los archivos pendientes que ya están quietos, en tantos ZIP nuevos como pidan los límites
+    private void flush() {
+        long now = System.currentTimeMillis();
+        ArchiveBuilder builder = ArchiveBuilder.create().skipMissing(true); // Un archivo borrado mientras tanto no anula el lote
+        LinkedHashMap<Path, PendingFile> deferred = new LinkedHashMap<>(); // Archivos con eventos recientes
+        LinkedHashMap<Path, PendingFile> touched = new LinkedHashMap<>(); // Archivos que cambiaron sin recibir evento
+        int count = 0;
+        long bytes = 0;
+
+        for (Map.Entry<Path, PendingFile> entry : pending.entrySet()) {
+            Path file = entry.getKey();
+            PendingFile pendingFile = entry.getValue();
+            if (now - pendingFile.seenAt < QUIET_PERIOD_MS && running) {
+                deferred.put(file, pendingFile); // Evento reciente: se deja sin consultar el disco
+                continue;
+            }
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (now - attrs.lastModifiedTime().toMillis() < QUIET_PERIOD_MS && running) {
+                    touched.put(file, new PendingFile(pendingFile.dir, attrs.size(), now)); // Cuenta como visto ahora
+                    continue;
+                }
+                Path root = pendingFile.dir;
+                String prefix;
+                synchronized (watchedDirs) {
+                    prefix = prefixes.get(root);
+                }
+                if (count >= MAX_FILES_PER_BATCH || (count > 0 && bytes + attrs.size() > maxBatchBytes)) {
+                    writeBatch(builder); // El lote está lleno: el resto va en otro ZIP
+                    builder = ArchiveBuilder.create().skipMissing(true);
+                    count = 0;
+                    bytes = 0;
+                }
+                builder.add(prefix + "/" + root.relativize(file).toString().replace(File.separatorChar, '/'), file);
+                archived.put(file, attrs.lastModifiedTime().toMillis());
+                count++;
+                bytes += attrs.size();
+            } catch (NoSuchFileException e) {
+                // El archivo se borró antes de archivarlo
+            } catch (IOException e) {
+                notifyError(e);
+            }
+        }
+        pending.clear();
+        pendingBytes = 0;
+        deferred.putAll(touched); // Los vistos ahora quedan al final, para mantener el orden por último evento
+        for (Map.Entry<Path, PendingFile> entry : deferred.entrySet()) {
+            pending.put(entry.getKey(), entry.getValue());
+            pendingBytes += entry.getValue().size;
+        }
+        batchOpenedAt = now;
+
+        // Avanza la marca con una ventana de margen, por si el aviso de desbordamiento llega
+        // después de este lote, y olvida los archivos que ya quedan por debajo de ella
+        lastScanTime = Math.max(lastScanTime, now - windowMillis);
+        long since = lastScanTime - QUIET_PERIOD_MS;
+        archived.values().removeIf(modified -> modified < since);
+
+        if (count > 0) {
+            writeBatch(builder);
+        }
+    }
+
+    private void writeBatch(ArchiveBuilder builder) {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        Path archive = outputDir.resolve("batch-" + stamp + "-" + batchCounter.incrementAndGet() + ".zip");
+        Path partial = outputDir.resolve(archive.getFileName() + ".part"); // Evita que otros lean un ZIP incompleto
+
+        OutputStream out;
+        try {
+            out = new BufferedOutputStream(Files.newOutputStream(partial));
+        } catch (IOException e) {
+            notifyError(e);
+            return;
+        }
+
+        // El lote se comprime en el pool compartido mientras este hilo sigue recogiendo eventos
+        CompletableFuture<?> write = builder.writeTo(out).whenComplete((results, error) -> {
+            try {
+                out.close();
+                if (error != null) {
+                    Files.deleteIfExists(partial);
+                    notifyError(error instanceof Exception ? (Exception) error : new IOException(error));
+                    return;
+                }
+                if (results.isEmpty()) {
+                    Files.deleteIfExists(partial); // Se borraron todos los archivos del lote
+                    return;
+                }
+                Files.move(partial, archive, StandardCopyOption.ATOMIC_MOVE);
+                if (listener != null) {
+                    long bytes = 0;
+                    for (ArchiveBuilder.EntryResult result : results) {
+                        bytes += result.getSize();
+                    }
+                    listener.onBatchWritten(archive, results.size(), bytes);
+                }
+            } catch (IOException e) {
+                notifyError(e);
+            }
+        });
+        inFlight.add(write);
+        write.whenComplete((results, error) -> inFlight.remove(write));
+    }
+
+    private void notifyError(Exception e) {
+        if (listener != null) {
+            listener.onError(e);
+        }
+    }
+}
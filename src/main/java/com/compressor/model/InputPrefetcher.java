@@ -0,0 +1,346 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para la lectura de archivos
+import java.nio.file.Files; // Importa Files para leer el número de inodo
+import java.util.ArrayDeque; // Importa ArrayDeque para la cola de archivos leídos por adelantado
+import java.util.Arrays; // Importa Arrays para ordenar los índices
+import java.util.Comparator; // Importa Comparator para el orden por carpeta e inodo
+import java.util.Deque; // Importa la interfaz Deque para la cola
+import java.util.List; // Importa la interfaz List para la lista de archivos
+
+/**
+ * Lector anticipado de los archivos a comprimir.
+ * Los archivos se recorren en orden de localidad (por carpeta y, dentro de ella, por número de
+ * inodo, que en la mayoría de sistemas de archivos sigue el orden en disco) y un hilo en segundo
+ * plano lee el principio de los siguientes archivos mientras los hilos de compresión trabajan,
+ * así la latencia de disco o de red se solapa con el uso de CPU.
+ *
+ * La ventana de lectura anticipada (bytes leídos y aún no consumidos) se ajusta con la latencia
+ * medida: se busca tener leído lo que los compresores consumen durante dos lecturas, y se
+ * duplica cada vez que un compresor tiene que esperar. La ventana se aparta del presupuesto de
+ * memoria del trabajo con MemoryBudget.tryReserve, así que solo crece si queda memoria libre;
+ * sin memoria se lee un solo archivo cada vez. Lo leído cuenta en la ventana hasta que el
+ * compresor cierra el stream del archivo, no solo mientras espera en la cola.
+ */
+public class InputPrefetcher implements Closeable {
+    private static final int HEAD_SIZE = 1024 * 1024; // Bytes que se leen por adelantado de cada archivo
+    private static final long MIN_WINDOW = 2L * 1024 * 1024; // Ventana mínima
+    private static final long MAX_WINDOW = 64L * 1024 * 1024; // Ventana máxima
+    private static final int ADJUST_EVERY = 16; // Archivos entre cada ajuste de la ventana
+
+    private final List<File> files; // Archivos en el orden original (los índices se mantienen)
+    private final int[] order; // Orden en que se leen y se entregan
+    private final Deque<Prefetched> ready = new ArrayDeque<>(); // Archivos ya leídos, pendientes de entregar
+    private final Thread reader; // Hilo que lee por adelantado
+    private final MemoryBudget budget; // Presupuesto del que se aparta la ventana
+    private final Deque<MemoryBudget.Lease> reservations = new ArrayDeque<>(); // Bloques apartados para la ventana
+    private long bufferedBytes; // Bytes leídos y aún no liberados (en cola o en manos de un compresor)
+    private long windowBytes; // Tamaño actual de la ventana, siempre igual a la memoria apartada
+    private int delivered; // Archivos ya entregados
+    private double avgReadNanos; // Media móvil del tiempo de lectura por archivo
+    private long consumeStart = System.nanoTime(); // Inicio del periodo de medición del consumo
+    private long consumedBytes; // Bytes entregados en el periodo actual
+    private long stalls; // Veces que un compresor tuvo que esperar
+    private boolean started; // Indica si el hilo lector está en marcha
+    private boolean readerDone; // Indica si el hilo lector terminó, con o sin error
+    private Throwable readerFailure; // Error inesperado que detuvo al hilo lector
+    private volatile boolean closed; // Indica si se ha detenido la lectura
+
+    /**
+     * Archivo preparado para comprimir: su índice original y el principio ya leído.
+     */
+    public static final class Prefetched {
+        private final int index;
+        private final File file;
+        private final byte[] head;
+        private final IOException error;
+        private final InputPrefetcher owner; // Lector al que se devuelve el espacio de head (null sin lectura anticipada)
+        private boolean released; // Indica si head ya se descontó de la ventana
+
+        Prefetched(int index, File file, byte[] head, IOException error, InputPrefetcher owner) {
+            this.index = index;
+            this.file = file;
+            this.head = head;
+            this.error = error;
+            this.owner = owner;
+        }
+
+        /**
+         * @return Índice del archivo en la lista original
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Abre el contenido completo: primero lo leído por adelantado y después el resto desde disco.
+         * Lo leído por adelantado sigue contando en la ventana hasta que se cierra el stream.
+         * @return Stream con todo el contenido del archivo
+         * @throws IOException Si el archivo no se pudo leer
+         */
+        public InputStream open() throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            if (head == null) {
+                return new FileInputStream(file); // Sin lectura anticipada
+            }
+            InputStream headStream = new ByteArrayInputStream(head);
+            if (head.length < HEAD_SIZE) {
+                return new FilterInputStream(headStream) { // El archivo cabía entero en la lectura anticipada
+                    @Override
+                    public void close() throws IOException {
+                        release();
+                    }
+                };
+            }
+            FileInputStream rest;
+            try {
+                rest = new FileInputStream(file);
+                rest.getChannel().position(head.length);
+            } catch (IOException e) {
+                release(); // El compresor no llegará a usar head
+                throw e;
+            }
+            return new SequenceInputStream(headStream, rest) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+
+        // Devuelve el espacio de head a la ventana una sola vez
+        private void release() {
+            synchronized (owner) {
+                if (!released) {
+                    released = true;
+                    owner.release(head.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crea el lector anticipado. La lectura empieza al llamar a start().
+     * @param files Archivos a comprimir
+     * @param order Orden de lectura (índices de files)
+     * @param budget Presupuesto de memoria del que se aparta la ventana
+     */
+    public InputPrefetcher(List<File> files, int[] order, MemoryBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Memory budget must not be null");
+        }
+        this.files = files;
+        this.order = order;
+        this.budget = budget;
+        this.reader = new Thread(this::readAhead, "input-prefetcher");
+        this.reader.setDaemon(true); // No impide que la aplicación termine
+    }
+
+    /**
+     * Ordena los archivos por carpeta y, dentro de cada carpeta, por número de inodo si el
+     * sistema lo ofrece (o por nombre si no).
+     * @param files Archivos a ordenar
+     * @return Índices de files en orden de localidad
+     */
+    public static int[] localityOrder(List<File> files) {
+        String[] parents = new String[files.size()];
+        long[] inodes = new long[files.size()];
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) {
+            File file = files.get(i);
+            order[i] = i;
+            parents[i] = file.getAbsoluteFile().getParent();
+            inodes[i] = inode(file);
+        }
+        Arrays.sort(order, Comparator.<Integer, String>comparing(i -> parents[i], Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(i -> inodes[i])
+            .thenComparing(i -> files.get(i).getName()));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Empieza la lectura anticipada en segundo plano.
+     */
+    public synchronized void start() {
+        started = true;
+        resizeWindow(MIN_WINDOW);
+        reader.start();
+    }
+
+    /**
+     * Entrega el siguiente archivo en orden. Se puede llamar desde varios hilos a la vez.
+     * Si no se ha llamado a start(), los archivos se entregan sin leer nada por adelantado.
+     * @return El siguiente archivo, o null si ya se entregaron todos
+     * @throws IllegalStateException Si el hilo lector se detuvo antes de leer todos los archivos
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera
+     */
+    public synchronized Prefetched next() throws InterruptedException {
+        if (delivered >= order.length || closed) {
+            return null;
+        }
+        if (!started) {
+            int index = order[delivered++];
+            return new Prefetched(index, files.get(index), null, null, null);
+        }
+        if (ready.isEmpty()) {
+            stalls++;
+            resizeWindow(Math.max(MIN_WINDOW, windowBytes * 2)); // El lector va por detrás: ampliar la ventana
+            notifyAll();
+            while (ready.isEmpty() && !closed && !readerDone) {
+                wait();
+            }
+            if (closed) {
+                return null;
+            }
+            if (ready.isEmpty()) { // El lector terminó sin leer este archivo
+                throw new IllegalStateException("Input prefetcher stopped"
+                    + (readerFailure != null ? ": " + readerFailure : ""), readerFailure);
+            }
+        }
+        Prefetched item = ready.poll();
+        delivered++;
+        consumedBytes += item.head.length;
+        return item;
+    }
+
+    /**
+     * @return Tamaño actual de la ventana de lectura anticipada en bytes
+     */
+    public synchronized long getWindowBytes() {
+        return windowBytes;
+    }
+
+    /**
+     * @return Veces que un compresor tuvo que esperar a la lectura
+     */
+    public synchronized long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Detiene la lectura anticipada y despierta a los hilos que esperan.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ready.clear();
+        resizeWindow(0); // Devuelve la memoria apartada
+        notifyAll();
+    }
+
+    // Devuelve a la ventana el espacio de un archivo que el compresor ya terminó de leer
+    private synchronized void release(int length) {
+        bufferedBytes -= length;
+        notifyAll(); // Hay sitio en la ventana para el lector
+    }
+
+    // Hilo lector: al terminar, por error o no, despierta a los compresores que esperan
+    private void readAhead() {
+        try {
+            readAll();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                readerFailure = e; // next() lo lanza a los compresores en vez de esperar para siempre
+            }
+        } finally {
+            synchronized (this) {
+                readerDone = true;
+                notifyAll();
+            }
+        }
+    }
+
+    // Bucle del hilo lector
+    private void readAll() {
+        byte[] buffer = new byte[HEAD_SIZE];
+        for (int n = 0; n < order.length && !closed; n++) {
+            synchronized (this) {
+                while (bufferedBytes > 0 && bufferedBytes >= windowBytes && !closed) {
+                    try {
+                        wait(); // La ventana está llena: espera a que los compresores consuman
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+
+            int index = order[n];
+            File file = files.get(index);
+            long start = System.nanoTime();
+            byte[] head;
+            IOException error = null;
+            try (InputStream in = new FileInputStream(file)) {
+                int length = in.readNBytes(buffer, 0, HEAD_SIZE);
+                head = Arrays.copyOf(buffer, length);
+            } catch (IOException e) {
+                head = new byte[0];
+                error = e; // El error se entrega al compresor que tome este archivo
+            }
+            long readNanos = System.nanoTime() - start;
+
+            synchronized (this) {
+                avgReadNanos = avgReadNanos == 0 ? readNanos : avgReadNanos * 0.9 + readNanos * 0.1;
+                if ((n + 1) % ADJUST_EVERY == 0) {
+                    adjustWindow();
+                }
+                ready.add(new Prefetched(index, file, head, error, this));
+                bufferedBytes += head.length;
+                notifyAll(); // Despierta a un compresor que espera
+            }
+        }
+    }
+
+    // Ventana = bytes que los compresores consumen durante dos lecturas, dentro de los límites
+    private void adjustWindow() {
+        long elapsed = System.nanoTime() - consumeStart;
+        if (elapsed <= 0 || consumedBytes == 0) {
+            return;
+        }
+        double bytesPerNano = consumedBytes / (double) elapsed;
+        long target = (long) (bytesPerNano * avgReadNanos * 2);
+        if (target < windowBytes) {
+            resizeWindow(Math.max(MIN_WINDOW, Math.max(target, windowBytes - MIN_WINDOW))); // Reduce poco a poco
+        } else {
+            resizeWindow(target);
+        }
+        consumeStart = System.nanoTime();
+        consumedBytes = 0;
+    }
+
+    // Aparta o devuelve bloques del presupuesto hasta acercarse a wanted (como mucho MAX_WINDOW)
+    private void resizeWindow(long wanted) {
+        long target = closed ? 0 : Math.min(MAX_WINDOW, wanted);
+        while (windowBytes < target) {
+            MemoryBudget.Lease lease = budget.tryReserve(MemoryBudget.BLOCK_SIZE);
+            if (lease == null) {
+                break; // No queda memoria libre: la ventana no crece
+            }
+            reservations.push(lease);
+            windowBytes += lease.capacity();
+        }
+        while (windowBytes - MemoryBudget.BLOCK_SIZE >= target && !reservations.isEmpty()) {
+            MemoryBudget.Lease lease = reservations.pop();
+            windowBytes -= lease.capacity();
+            lease.close();
+        }
+    }
+
+    private static long inode(File file) {
+        try {
+            Object ino = Files.getAttribute(file.toPath(), "unix:ino");
+            return ino instanceof Long ? (Long) ino : 0;
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return 0; // Sistema sin inodos: se ordena solo por carpeta y nombre
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.nio.ByteBuffer; // Importa ByteBuffer para los bloques de memoria
+import java.util.ArrayDeque; // Importa ArrayDeque para guardar los bloques libres
+import java.util.ArrayList; // Importa ArrayList para los bloques de cada préstamo
+import java.util.Deque; // Importa la interfaz Deque para la pila de bloques libres
+import java.util.List; // Importa la interfaz List para los bloques de cada préstamo
+
+/**
+ * Controla la memoria total que pueden usar los buffers de compresión.
+ * El presupuesto se reparte en bloques de tamaño fijo, reservados fuera del heap cuando es
+ * posible. Los hilos piden préstamos de bloques y, si el presupuesto está agotado, esperan a
+ * que otro hilo devuelva los suyos; así un trabajo ocupa siempre la misma memoria,
+ * sin importar cuántos archivos tenga ni su tamaño.
+ */
+public class MemoryBudget {
+    public static final int BLOCK_SIZE = 1024 * 1024; // Tamaño de cada bloque (1 MB)
+
+    private final int totalBlocks; // Número de bloques del presupuesto
+    private final Deque<ByteBuffer> freeBlocks = new ArrayDeque<>(); // Bloques ya reservados y libres (se reservan a medida que se piden)
+    private int availableBlocks; // Bloques que se pueden prestar en este momento
+    private int reservedBlocks; // Bloques apartados con tryReserve, como mucho la mitad del presupuesto
+
+    /**
+     * Crea un presupuesto de memoria.
+     * @param budgetBytes Memoria total en bytes (como mínimo un bloque)
+     */
+    public MemoryBudget(long budgetBytes) {
+        this.totalBlocks = (int) Math.max(1, budgetBytes / BLOCK_SIZE);
+        this.availableBlocks = totalBlocks;
+    }
+
+    /**
+     * Pide prestada memoria para un buffer. Si no hay suficiente, espera a que se libere.
+     * Un préstamo mayor que el presupuesto no reservado se reduce a ese tamaño.
+     * @param bytes Bytes que se desean
+     * @return El préstamo, que debe devolverse con close()
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera
+     */
+    public Lease acquire(long bytes) throws InterruptedException {
+        int wanted = (int) Math.min(totalBlocks, Math.max(1, (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE));
+        List<ByteBuffer> leased = new ArrayList<>(wanted);
+        synchronized (this) {
+            int blocks = Math.min(wanted, totalBlocks - reservedBlocks);
+            while (availableBlocks < blocks) {
+                wait(); // Se retiene el trabajo nuevo hasta que otro hilo devuelva memoria
+                blocks = Math.min(wanted, totalBlocks - reservedBlocks);
+            }
+            availableBlocks -= blocks;
+            for (int i = 0; i < blocks; i++) {
+                leased.add(freeBlocks.isEmpty() ? allocateBlock() : freeBlocks.pop());
+            }
+        }
+        return new Lease(leased, 0);
+    }
+
+    /**
+     * Aparta memoria que el llamador guarda por su cuenta (por ejemplo arrays del heap) para
+     * que cuente dentro del presupuesto. No espera: si la reserva dejaría libre menos de la
+     * mitad del presupuesto devuelve null, así acquire() siempre puede avanzar.
+     * @param bytes Bytes que se desean apartar
+     * @return La reserva, que debe devolverse con close(), o null si no hay memoria suficiente
+     */
+    public synchronized Lease tryReserve(long bytes) {
+        int blocks = (int) Math.max(1, (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (availableBlocks - blocks < (totalBlocks + 1) / 2) {
+            return null;
+        }
+        availableBlocks -= blocks;
+        reservedBlocks += blocks;
+        return new Lease(new ArrayList<>(), blocks);
+    }
+
+    /**
+     * @return Memoria total del presupuesto en bytes
+     */
+    public long getBudgetBytes() {
+        return (long) totalBlocks * BLOCK_SIZE;
+    }
+
+    /**
+     * @return Memoria disponible en este momento en bytes
+     */
+    public synchronized long getAvailableBytes() {
+        return (long) availableBlocks * BLOCK_SIZE;
+    }
+
+    // Reserva un bloque nuevo, fuera del heap si es posible
+    private ByteBuffer allocateBlock() {
+        try {
+            return ByteBuffer.allocateDirect(BLOCK_SIZE);
+        } catch (OutOfMemoryError e) {
+            return ByteBuffer.allocate(BLOCK_SIZE); // Límite de memoria directa alcanzado, se usa el heap
+        }
+    }
+
+    private synchronized void release(List<ByteBuffer> blocks, int reserved) {
+        for (ByteBuffer block : blocks) {
+            block.clear();
+            freeBlocks.push(block);
+        }
+        availableBlocks += blocks.size() + reserved;
+        reservedBlocks -= reserved;
+        notifyAll(); // Despierta a los hilos que esperan memoria
+    }
+
+    /**
+     * Memoria prestada a un hilo, o apartada con tryReserve. Se devuelve al presupuesto con close().
+     */
+    public final class Lease implements AutoCloseable {
+        private List<ByteBuffer> blocks; // Bloques prestados, null cuando ya se devolvieron
+        private final int reserved; // Bloques apartados sin buffer (tryReserve)
+
+        private Lease(List<ByteBuffer> blocks, int reserved) {
+            this.blocks = blocks;
+            this.reserved = reserved;
+        }
+
+        /**
+         * @return Bloques prestados, cada uno de BLOCK_SIZE bytes (vacío en una reserva)
+         */
+        public List<ByteBuffer> getBlocks() {
+            if (blocks == null) {
+                throw new IllegalStateException("Lease already released");
+            }
+            return blocks;
+        }
+
+        /**
+         * @return Capacidad total del préstamo en bytes
+         */
+        public long capacity() {
+            return (long) (getBlocks().size() + reserved) * BLOCK_SIZE;
+        }
+
+        @Override
+        public void close() {
+            if (blocks != null) {
+                release(blocks, reserved);
+                blocks = null;
+            }
+        }
+    }
+}
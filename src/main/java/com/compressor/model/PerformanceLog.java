@@ -0,0 +1,50 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.time.Instant; // Importa Instant para calcular el tiempo desde el arranque del proceso
+import java.util.Map; // Importa la interfaz Map para guardar las mediciones
+import java.util.concurrent.ConcurrentHashMap; // Importa ConcurrentHashMap porque se mide desde varios hilos
+
+/**
+ * Registro de tiempos de la interfaz: tiempo hasta que la ventana es usable y tiempo hasta
+ * que aparecen los diálogos. Las mediciones se imprimen en la salida de error si se arranca
+ * con -Dcompressor.timing=true y siempre se pueden consultar con getMillis.
+ */
+public final class PerformanceLog {
+    private static final boolean ENABLED = Boolean.getBoolean("compressor.timing"); // Imprime cada medición
+    private static final Map<String, Long> MEASUREMENTS = new ConcurrentHashMap<>(); // Última medición de cada evento
+
+    private PerformanceLog() {} // Clase de utilidades, no se instancia
+
+    /**
+     * Registra el tiempo transcurrido desde un instante medido con System.nanoTime().
+     * @param event Nombre del evento
+     * @param startNanos Instante de inicio
+     */
+    public static void recordSince(String event, long startNanos) {
+        record(event, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde que arrancó el proceso.
+     * @param event Nombre del evento
+     */
+    public static void recordSinceProcessStart(String event) {
+        ProcessHandle.current().info().startInstant().ifPresent(start ->
+            record(event, Instant.now().toEpochMilli() - start.toEpochMilli()));
+    }
+
+    /**
+     * @param event Nombre del evento
+     * @return Última medición del evento en milisegundos, o -1 si no se ha medido
+     */
+    public static long getMillis(String event) {
+        return MEASUREMENTS.getOrDefault(event, -1L);
+    }
+
+    private static void record(String event, long millis) {
+        MEASUREMENTS.put(event, millis);
+        if (ENABLED) {
+            System.err.println("[timing] " + event + ": " + millis + " ms");
+        }
+    }
+}
@@ -130,6 +130,10 @@ public class ProgressData {
         return currentStatus;
     }
 
+    public long getEstimatedRemainingTime() {
+        return estimatedRemainingTime;
+    }
+
     public String getFormattedRemainingTime() {
         long seconds = estimatedRemainingTime / 1000;
         long minutes = seconds / 60;
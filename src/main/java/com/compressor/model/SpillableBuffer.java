@@ -0,0 +1,117 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de streams y archivos temporales
+import java.nio.ByteBuffer; // Importa ByteBuffer para los bloques prestados
+import java.nio.channels.Channels; // Importa Channels para copiar los bloques a un stream
+import java.nio.channels.WritableByteChannel; // Importa el canal usado para copiar los bloques
+import java.util.List; // Importa la interfaz List para los bloques del préstamo
+
+/**
+ * Buffer de salida que guarda los datos en la memoria prestada por un MemoryBudget y,
+ * cuando la supera, continúa escribiendo en un archivo temporal. Así un hilo nunca usa más
+ * memoria que la de su préstamo, por grande que sea la entrada que comprime.
+ */
+public class SpillableBuffer extends OutputStream {
+    private final MemoryBudget.Lease lease; // Memoria prestada para este buffer
+    private final List<ByteBuffer> blocks; // Bloques del préstamo
+    private int currentBlock; // Índice del bloque donde se escribe
+    private long size; // Bytes escritos en total
+    private File spillFile; // Archivo temporal, null mientras todo cabe en memoria
+    private OutputStream spillStream; // Stream de escritura del archivo temporal
+
+    /**
+     * Crea un buffer sobre la memoria prestada. El préstamo se devuelve al cerrar el buffer.
+     * @param lease Memoria prestada
+     */
+    public SpillableBuffer(MemoryBudget.Lease lease) {
+        this.lease = lease;
+        this.blocks = lease.getBlocks();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        size += len;
+        while (len > 0 && spillStream == null) {
+            ByteBuffer block = blocks.get(currentBlock);
+            int n = Math.min(len, block.remaining());
+            block.put(b, off, n);
+            off += n;
+            len -= n;
+            if (!block.hasRemaining()) {
+                if (currentBlock + 1 < blocks.size()) {
+                    currentBlock++;
+                } else if (len > 0) {
+                    spill(); // Se agotó el préstamo: lo que falta va a disco
+                }
+            }
+        }
+        if (len > 0) {
+            spillStream.write(b, off, len);
+        }
+    }
+
+    /**
+     * @return Bytes escritos en total
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return true si parte de los datos se escribieron en disco
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Copia todo el contenido, primero el de memoria y después el del archivo temporal.
+     * @param out Stream de destino
+     * @throws IOException Si ocurre un error de lectura o escritura
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i <= currentBlock; i++) {
+            ByteBuffer data = blocks.get(i).duplicate();
+            data.flip();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        if (spillStream != null) {
+            spillStream.flush();
+            try (InputStream in = new FileInputStream(spillFile)) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    /**
+     * Borra el archivo temporal y devuelve la memoria prestada.
+     * @throws IOException Si ocurre un error al cerrar el archivo temporal
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (spillStream != null) {
+                spillStream.close();
+                spillStream = null;
+                if (!spillFile.delete()) {
+                    spillFile.deleteOnExit();
+                }
+            }
+        } finally {
+            lease.close();
+        }
+    }
+
+    private void spill() throws IOException {
+        spillFile = File.createTempFile("compressor-spill-", ".tmp");
+        spillStream = new BufferedOutputStream(new FileOutputStream(spillFile));
+    }
+}
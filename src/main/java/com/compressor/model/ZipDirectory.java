@@ -0,0 +1,339 @@
+package com.compressor.model; // Define el paquete donde se encuentra la clase
+
+import java.io.*; // Importa clases para manejo de streams
+import java.nio.ByteBuffer; // Importa ByteBuffer para leer las cabeceras del ZIP
+import java.nio.ByteOrder; // Importa ByteOrder porque las cabeceras del ZIP son little-endian
+import java.nio.channels.Channels; // Importa Channels para leer una entrada como stream
+import java.nio.channels.FileChannel; // Importa FileChannel para leer y modificar el ZIP
+import java.nio.charset.StandardCharsets; // Importa UTF-8 para los nombres de las entradas
+import java.nio.file.Path; // Importa Path para la ruta del ZIP
+import java.nio.file.StandardOpenOption; // Importa opciones de apertura del canal
+import java.util.ArrayList; // Importa ArrayList para la lista de entradas
+import java.util.List; // Importa la interfaz List para la lista de entradas
+import java.util.Map; // Importa la interfaz Map para buscar entradas por posición
+import java.util.zip.ZipEntry; // Importa ZipEntry para el método DEFLATED
+import java.util.zip.ZipException; // Importa ZipException para los ZIP no válidos
+
+/**
+ * Lector mínimo del directorio central de un ZIP (con soporte ZIP64).
+ * java.util.zip.ZipFile rechaza el ZIP entero si una entrada usa un método que no conoce, y las
+ * entradas con diccionario usan un método propio precisamente para que otras herramientas se
+ * nieguen a extraerlas; por eso ArchiveExtractor lee el directorio con esta clase.
+ */
+final class ZipDirectory {
+    static final int LOCAL_HEADER_SIZE = 30; // Tamaño fijo de la cabecera local
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46; // Tamaño fijo de una entrada del directorio central
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22; // Tamaño fijo del registro de fin de directorio
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long MASK32 = 0xFFFFFFFFL;
+    private static final short DEFLATED_VERSION = 20; // Versión necesaria para extraer una entrada DEFLATED
+
+    private ZipDirectory() {} // Clase de utilidades, no se instancia
+
+    /**
+     * Datos de una entrada según el directorio central.
+     */
+    static final class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long headerOffset;
+        private final byte[] extra;
+
+        Entry(String name, int flags, int method, long crc, long compressedSize, long size, long headerOffset, byte[] extra) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+            this.extra = extra;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getFlags() {
+            return flags;
+        }
+
+        int getMethod() {
+            return method;
+        }
+
+        long getCrc() {
+            return crc;
+        }
+
+        long getCompressedSize() {
+            return compressedSize;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getHeaderOffset() {
+            return headerOffset;
+        }
+
+        byte[] getExtra() {
+            return extra;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * Lee todas las entradas del directorio central.
+     * @param archive Ruta del ZIP
+     * @return Entradas en el orden del directorio
+     * @throws IOException Si el ZIP no es válido
+     */
+    static List<Entry> read(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            List<Entry> entries = new ArrayList<>();
+            long[] location = locateDirectory(channel, archive);
+            ByteBuffer directory = readFully(channel, location[0], (int) location[1]);
+            while (directory.hasRemaining()) {
+                entries.add(readEntry(directory, archive));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Cambia en las cabeceras el método, el CRC y el tamaño original de las entradas indicadas,
+     * y para DEFLATED también la versión necesaria para extraerlas.
+     * El tamaño solo se cambia si cabe en 32 bits y la entrada no usa ZIP64.
+     * @param archive Ruta del ZIP ya terminado
+     * @param byOffset Valores nuevos, indexados por la posición de la cabecera local
+     * @throws IOException Si el ZIP no es válido o no se puede escribir
+     */
+    static void rewriteHeaders(Path archive, Map<Long, ArchiveIndex.Entry> byOffset) throws IOException {
+        if (byOffset.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long[] location = locateDirectory(channel, archive);
+            long directoryStart = location[0];
+            ByteBuffer directory = readFully(channel, directoryStart, (int) location[1]);
+            while (directory.hasRemaining()) {
+                int start = directory.position();
+                Entry entry = readEntry(directory, archive);
+                ArchiveIndex.Entry target = byOffset.get(entry.headerOffset);
+                if (target == null) {
+                    continue;
+                }
+                boolean sizeFits = target.getSize() < MASK32 && directory.getInt(start + 24) != (int) MASK32;
+                patch(channel, directoryStart + start + 10, (short) target.getMethod(), (int) target.getCrc(),
+                    directoryStart + start + 16, sizeFits ? directoryStart + start + 24 : -1, (int) target.getSize());
+                if (target.getMethod() == ZipEntry.DEFLATED && directory.getShort(start + 6) < DEFLATED_VERSION) {
+                    writeShort(channel, directoryStart + start + 6, DEFLATED_VERSION);
+                }
+
+                ByteBuffer local = readFully(channel, entry.headerOffset, LOCAL_HEADER_SIZE);
+                if (local.getInt(0) != LOCAL_SIGNATURE) {
+                    throw new ZipException("Invalid local header for " + entry.name);
+                }
+                boolean localSizeFits = target.getSize() < MASK32 && local.getInt(22) != (int) MASK32;
+                patch(channel, entry.headerOffset + 8, (short) target.getMethod(), (int) target.getCrc(),
+                    entry.headerOffset + 14, localSizeFits ? entry.headerOffset + 22 : -1, (int) target.getSize());
+                if (target.getMethod() == ZipEntry.DEFLATED && local.getShort(4) < DEFLATED_VERSION) {
+                    writeShort(channel, entry.headerOffset + 4, DEFLATED_VERSION);
+                }
+            }
+        }
+    }
+
+    /**
+     * Abre los bytes de los datos de una entrada, saltando su cabecera local.
+     * @param archive Ruta del ZIP
+     * @param headerOffset Posición de la cabecera local
+     * @param compressedSize Bytes que ocupan los datos
+     * @param name Nombre de la entrada, para los mensajes de error
+     * @return Stream limitado a los datos de la entrada
+     * @throws IOException Si la cabecera local no es válida
+     */
+    static InputStream openRaw(Path archive, long headerOffset, long compressedSize, String name) throws IOException {
+        FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+        try {
+            ByteBuffer local = readFully(channel, headerOffset, LOCAL_HEADER_SIZE);
+            if (local.getInt(0) != LOCAL_SIGNATURE) {
+                throw new ZipException("Invalid local header for " + name);
+            }
+            int nameLength = local.getShort(26) & 0xFFFF;
+            int extraLength = local.getShort(28) & 0xFFFF;
+            channel.position(headerOffset + LOCAL_HEADER_SIZE + nameLength + extraLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BufferedInputStream(new BoundedInputStream(Channels.newInputStream(channel), compressedSize), 8192);
+    }
+
+    // Localiza el registro de fin de directorio (y el de ZIP64 si hace falta); devuelve {posición, tamaño} del directorio central
+    private static long[] locateDirectory(FileChannel channel, Path archive) throws IOException {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_SIZE + 0xFFFF); // El comentario final ocupa como mucho 64 KB
+        ByteBuffer tail = readFully(channel, fileSize - tailSize, tailSize);
+        int end = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new ZipException("Not a ZIP file: " + archive);
+        }
+        long count = tail.getShort(end + 10) & 0xFFFF;
+        long size = tail.getInt(end + 12) & MASK32;
+        long offset = tail.getInt(end + 16) & MASK32;
+        if (count == 0xFFFF || size == MASK32 || offset == MASK32) { // Los valores reales están en el registro ZIP64
+            long locatorPosition = fileSize - tailSize + end - 20;
+            ByteBuffer locator = readFully(channel, locatorPosition, 20);
+            if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+                throw new ZipException("Missing ZIP64 locator in " + archive);
+            }
+            ByteBuffer zip64End = readFully(channel, locator.getLong(8), 56);
+            if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+                throw new ZipException("Invalid ZIP64 end record in " + archive);
+            }
+            size = zip64End.getLong(40);
+            offset = zip64End.getLong(48);
+        }
+        if (size > Integer.MAX_VALUE || offset + size > fileSize) {
+            throw new ZipException("Invalid central directory in " + archive);
+        }
+        return new long[] {offset, size};
+    }
+
+    // Lee una entrada del directorio central y deja el buffer al principio de la siguiente
+    private static Entry readEntry(ByteBuffer directory, Path archive) throws IOException {
+        int start = directory.position();
+        if (directory.remaining() < CENTRAL_HEADER_SIZE || directory.getInt(start) != CENTRAL_SIGNATURE) {
+            throw new ZipException("Invalid central directory entry in " + archive);
+        }
+        int flags = directory.getShort(start + 8) & 0xFFFF;
+        int method = directory.getShort(start + 10) & 0xFFFF;
+        long crc = directory.getInt(start + 16) & MASK32;
+        long compressedSize = directory.getInt(start + 20) & MASK32;
+        long size = directory.getInt(start + 24) & MASK32;
+        int nameLength = directory.getShort(start + 28) & 0xFFFF;
+        int extraLength = directory.getShort(start + 30) & 0xFFFF;
+        int commentLength = directory.getShort(start + 32) & 0xFFFF;
+        long headerOffset = directory.getInt(start + 42) & MASK32;
+        if (directory.remaining() < CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength) {
+            throw new ZipException("Truncated central directory in " + archive);
+        }
+
+        byte[] nameBytes = new byte[nameLength];
+        byte[] extra = new byte[extraLength];
+        directory.position(start + CENTRAL_HEADER_SIZE);
+        directory.get(nameBytes);
+        directory.get(extra);
+        directory.position(directory.position() + commentLength);
+
+        // Los campos a 0xFFFFFFFF se leen del campo extra ZIP64, en este orden
+        ByteBuffer extras = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        while (extras.remaining() >= 4) {
+            int id = extras.getShort() & 0xFFFF;
+            int length = extras.getShort() & 0xFFFF;
+            int next = extras.position() + length;
+            if (next > extra.length) {
+                break;
+            }
+            if (id == ZIP64_EXTRA_ID) {
+                if (size == MASK32 && extras.position() + 8 <= next) {
+                    size = extras.getLong();
+                }
+                if (compressedSize == MASK32 && extras.position() + 8 <= next) {
+                    compressedSize = extras.getLong();
+                }
+                if (headerOffset == MASK32 && extras.position() + 8 <= next) {
+                    headerOffset = extras.getLong();
+                }
+            }
+            extras.position(next);
+        }
+        return new Entry(new String(nameBytes, StandardCharsets.UTF_8), flags, method, crc, compressedSize, size,
+            headerOffset, extra);
+    }
+
+    // Escribe el método, el CRC y, si sizePosition no es -1, el tamaño original
+    private static void patch(FileChannel channel, long methodPosition, short method, int crc, long crcPosition,
+            long sizePosition, int size) throws IOException {
+        writeFully(channel, methodPosition, ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort(0, method));
+        writeFully(channel, crcPosition, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, crc));
+        if (sizePosition >= 0) {
+            writeFully(channel, sizePosition, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, size));
+        }
+    }
+
+    private static void writeShort(FileChannel channel, long position, short value) throws IOException {
+        writeFully(channel, position, ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort(0, value));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of ZIP file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    // Stream que entrega como máximo un número fijo de bytes
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
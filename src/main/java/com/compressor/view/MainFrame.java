@@ -11,6 +11,11 @@ public class MainFrame extends JFrame {
     private JButton compressButton;
     private JButton cancelButton;
 
+    // Opciones de compresión
+    private JCheckBox dictionaryCheckBox; // Comprimir con diccionario compartido
+    private JCheckBox indexCheckBox; // Escribir el índice .idx junto al ZIP
+    private JCheckBox separateFilesCheckBox; // Un .gz independiente por archivo en lugar de un ZIP
+
     // Lista de archivos seleccionados
     private JList<String> filesList;
     private DefaultListModel<String> listModel;
@@ -35,6 +40,16 @@ public class MainFrame extends JFrame {
         compressButton.setEnabled(false); // Deshabilitado inicialmente
         cancelButton = new JButton("Cancel");
         cancelButton.setEnabled(false); // Deshabilitado inicialmente
+        dictionaryCheckBox = new JCheckBox("Shared dictionary");
+        dictionaryCheckBox.setToolTipText("Better ratio for many small, similar files (requires this program to extract)");
+        indexCheckBox = new JCheckBox("Write index");
+        indexCheckBox.setToolTipText("Write a .idx file next to the ZIP for fast single-file lookup");
+        separateFilesCheckBox = new JCheckBox("Separate .gz files");
+        separateFilesCheckBox.setToolTipText("Compress each file to its own .gz next to the original instead of one ZIP");
+        separateFilesCheckBox.addItemListener(e -> { // El diccionario y el índice solo se aplican al ZIP
+            dictionaryCheckBox.setEnabled(!separateFilesCheckBox.isSelected());
+            indexCheckBox.setEnabled(!separateFilesCheckBox.isSelected());
+        });
 
         // Lista de archivos con modelo para actualizar dinámicamente
         listModel = new DefaultListModel<>();
@@ -63,6 +78,9 @@ public class MainFrame extends JFrame {
         buttonPanel.add(selectFilesButton);
         buttonPanel.add(compressButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(dictionaryCheckBox);
+        buttonPanel.add(indexCheckBox);
+        buttonPanel.add(separateFilesCheckBox);
 
         // Panel con lista de archivos y scroll
         JScrollPane scrollPane = new JScrollPane(filesList);
@@ -139,6 +157,18 @@ public class MainFrame extends JFrame {
         statusLabel.setText("Error: " + message); // Mensaje de error
     }
 
+    public boolean isDictionaryModeSelected() {
+        return dictionaryCheckBox.isSelected(); // Indica si se usa el diccionario compartido
+    }
+
+    public boolean isIndexSelected() {
+        return indexCheckBox.isSelected(); // Indica si se escribe el índice junto al ZIP
+    }
+
+    public boolean isSeparateFilesSelected() {
+        return separateFilesCheckBox.isSelected(); // Indica si cada archivo se comprime en su propio .gz
+    }
+
     // Métodos para agregar listeners a los botones
     public void addSelectFilesListener(ActionListener listener) {
         selectFilesButton.addActionListener(listener);
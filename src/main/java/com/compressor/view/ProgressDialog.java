@@ -16,6 +16,7 @@ public class ProgressDialog extends JDialog {
     private JLabel overallProgressLabel;
     private JLabel timeRemainingLabel;
     private JLabel processedSizeLabel;
+    private JLabel workersLabel;
     
     // Botón para cancelar la operación
     private JButton cancelButton;
@@ -47,6 +48,7 @@ public class ProgressDialog extends JDialog {
         // Etiquetas informativas
         timeRemainingLabel = new JLabel("Time remaining: calculating...");
         processedSizeLabel = new JLabel("Processed: 0 MB of 0 MB");
+        workersLabel = new JLabel("Workers: -");
 
         // Configuración del botón de cancelar
         cancelButton = new JButton("Cancel");
@@ -81,9 +83,10 @@ public class ProgressDialog extends JDialog {
         overallPanel.add(overallProgressBar, BorderLayout.CENTER);
         
         // Panel para las etiquetas informativas
-        JPanel infoPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        JPanel infoPanel = new JPanel(new GridLayout(3, 1, 5, 5));
         infoPanel.add(processedSizeLabel);
         infoPanel.add(timeRemainingLabel);
+        infoPanel.add(workersLabel);
         
         // Agregar secciones al panel principal
         mainPanel.add(currentFilePanel);
@@ -103,7 +106,7 @@ public class ProgressDialog extends JDialog {
     // Configuración del cuadro de diálogo
     private void configureDialog() {
         this.setDefaultCloseOperation(DO_NOTHING_ON_CLOSE); // Evita cerrar con la "X"
-        this.setSize(400, 300); // Tamaño fijo de la ventana
+        this.setSize(400, 320); // Tamaño fijo de la ventana
         this.setLocationRelativeTo(getParent()); // Centra la ventana respecto al padre
         this.setResizable(false); // No permite cambiar el tamaño
     }
@@ -129,6 +132,14 @@ public class ProgressDialog extends JDialog {
         });
     }
 
+    // Muestra cuántos hilos están comprimiendo y por qué cambió el número
+    public void updateWorkers(int activeWorkers, String reason) {
+        SwingUtilities.invokeLater(() -> {
+            workersLabel.setText("Workers: " + activeWorkers);
+            workersLabel.setToolTipText(reason);
+        });
+    }
+
     // Muestra el cuadro de diálogo
     public void showDialog() {
         userCancelled = false; // Reinicia el estado de cancelación